@@ -4,8 +4,11 @@ import com.example.demo.service.CallChainAnalyzer;
 import com.example.demo.service.CloudDevelopmentRuleEngine;
 import com.example.demo.service.AIIntegrationService;
 import com.example.demo.service.CacheService;
+import com.example.demo.service.CallChainDependencyTracker;
 import com.example.demo.service.PromptManager;
 import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.MethodId;
+import com.example.demo.model.MethodInfo;
 import com.example.demo.model.RuleViolation;
 import com.example.demo.ui.CheckResultDialog;
 import com.intellij.openapi.actionSystem.AnAction;
@@ -15,6 +18,7 @@ import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
@@ -32,13 +36,25 @@ import java.util.ArrayList;
 public class CodeStandardCheckAction extends AnAction {
 
     /**
-     * 执行代码规范检查
+     * 执行代码规范检查，存在重载时检查第一个同名方法，结果不缓存
      *
      * @param methodName 方法名
      * @param className  类名
      * @param project    项目对象
      */
     public void performCheck(String methodName, String className, Project project) {
+        performCheck(methodName, className, null, project);
+    }
+
+    /**
+     * 执行代码规范检查
+     *
+     * @param methodName     方法名
+     * @param className      类名
+     * @param parameterTypes 擦除后的参数类型，用于区分重载方法
+     * @param project        项目对象
+     */
+    public void performCheck(String methodName, String className, String parameterTypes, Project project) {
         if (methodName == null || methodName.trim().isEmpty()) {
             showErrorDialog("请提供有效的方法名", "错误");
             return;
@@ -58,14 +74,54 @@ public class CodeStandardCheckAction extends AnAction {
                     indicator.setText("开始分析方法调用链路...");
                     indicator.setFraction(0.1);
 
-                    // 1. 分析方法调用链路
-                    CallChainAnalyzer analyzer = new CallChainAnalyzer(project);
-                    MethodCallChain callChain = analyzer.analyzeCallChain(methodName, className);
+                    // 1. 分析方法调用链路，依赖的文件都未修改时复用缓存的结果
+                    CacheService cacheService = CacheService.getInstance();
+                    CallChainDependencyTracker tracker = CallChainDependencyTracker.getInstance(project);
+                    // 参数类型未知时无法区分重载方法，不使用缓存
+                    String methodKey = parameterTypes != null
+                            ? project.getLocationHash() + ":" + cacheService.generateMethodKey(
+                                    MethodId.of(className, methodName, parameterTypes))
+                            : null;
+                    MethodCallChain callChain = methodKey != null && tracker.isUpToDate(methodKey)
+                            ? cacheService.getCachedCallChain(methodKey) : null;
+                    boolean cachedChain = callChain != null;
+                    if (!cachedChain) {
+                        long stamp = tracker.getModificationStamp();
+                        // 逐层加深分析，每完成一层即执行规则检查并在进度中展示，不必等待完整链路
+                        CloudDevelopmentRuleEngine ruleEngine = new CloudDevelopmentRuleEngine();
+                        callChain = CallChainAnalyzer.getInstance(project).analyzeCallChainIteratively(
+                                methodName, className, parameterTypes, depthChain -> {
+                                    List<RuleViolation> depthViolations = ruleEngine.checkCallChain(depthChain);
+                                    indicator.setText("已分析到第" + depthChain.getMaxDepth() + "层调用...");
+                                    indicator.setText2(depthChain.getTotalMethodCount() + "个方法，规则检查发现"
+                                            + depthViolations.size() + "个问题");
+                                });
+                        indicator.setText2("");
+                        if (callChain.isFailed()) {
+                            // 分析失败时没有可检查的链路，不缓存也不进行AI分析
+                            String reason = callChain.getFailureReason();
+                            SwingUtilities.invokeLater(() -> showErrorDialog(reason, "检查失败"));
+                            return;
+                        }
+                        // 先清除旧的分析结果，再登记新链路；模拟链路没有源文件，不会被登记
+                        if (methodKey != null) {
+                            cacheService.clearMethodCache(methodKey);
+                            if (tracker.track(methodKey, callChain, stamp)) {
+                                cacheService.cacheCallChain(methodKey, callChain);
+                            }
+                        }
+                    }
                     indicator.setText("AI智能分析...");
                     indicator.setFraction(0.5);
-                    // 2. 使用AI进行智能分析
+                    // 2. 使用AI进行智能分析，链路未变化时复用上次的分析结果
                     AIIntegrationService aiService = new AIIntegrationService();
-                    List<RuleViolation> aiViolations = aiService.analyzeWithAI(callChain);
+                    List<RuleViolation> aiViolations = cachedChain ? cacheService.getCachedAIAnalysis(methodKey) : null;
+                    if (aiViolations == null) {
+                        aiViolations = aiService.analyzeWithAI(callChain);
+                        if (methodKey != null && tracker.isUpToDate(methodKey)) {
+                            cacheService.cacheAIAnalysis(methodKey, aiViolations);
+                        }
+                    }
 
                     indicator.setText("生成检查报告...");
                     indicator.setFraction(0.9);
@@ -74,13 +130,17 @@ public class CodeStandardCheckAction extends AnAction {
                     List<RuleViolation> allViolations = aiViolations;
 
                     // 4. 生成检查报告
-                    String report = generateReport(callChain, allViolations, aiService);
+                    MethodCallChain resultChain = callChain;
+                    String report = generateReport(resultChain, allViolations, aiService);
 
                     indicator.setFraction(1.0);
 
                     // 在EDT线程中显示结果
-                    SwingUtilities.invokeLater(() -> showResults(callChain, allViolations, report));
+                    SwingUtilities.invokeLater(() -> showResults(resultChain, allViolations, report));
 
+                } catch (ProcessCanceledException ex) {
+                    // 用户取消检查
+                    throw ex;
                 } catch (Exception ex) {
                     SwingUtilities.invokeLater(() ->
                             showErrorDialog("检查过程中发生错误: " + ex.getMessage(), "错误"));
@@ -89,36 +149,29 @@ public class CodeStandardCheckAction extends AnAction {
         });
     }
 
-    /**
-     * 显示缓存的结果
-     */
-    private void showCachedResults(String methodKey) {
-        MethodCallChain callChain = CacheService.getInstance().getCachedCallChain(methodKey);
-        List<RuleViolation> aiViolations = CacheService.getInstance().getCachedAIAnalysis(methodKey);
-
-        if (callChain != null && aiViolations != null) {
-            AIIntegrationService aiService = new AIIntegrationService();
-            String report = generateReport(callChain, aiViolations, aiService);
-            showResults(callChain, aiViolations, report);
-        } else {
-            showErrorDialog("缓存数据不完整，请重新检查", "错误");
-        }
-    }
-
     /**
      * 生成检查报告
      */
     private String generateReport(MethodCallChain callChain, List<RuleViolation> violations,
                                   AIIntegrationService aiService) {
+        String truncationNote = callChain.isTruncated()
+                ? "注意: 调用链路分析已提前停止（" + callChain.getTruncationReason() + "），以下为部分结果\n"
+                : "";
         if (violations.isEmpty()) {
-            return "恭喜！该方法调用链路完全符合云开发范式规范。";
+            return truncationNote + "恭喜！该方法调用链路完全符合云开发范式规范。";
         }
 
         StringBuilder report = new StringBuilder();
         report.append("=== 云开发规范检查报告 ===\n\n");
+        report.append(truncationNote);
         report.append("检查方法: ").append(callChain.getRootMethod().getMethodSignature()).append("\n");
         report.append("调用链路深度: ").append(callChain.getMaxDepth()).append("\n");
         report.append("涉及方法数: ").append(callChain.getTotalMethodCount()).append("\n");
+        List<MethodInfo> entryRoots = callChain.getEntryRoots();
+        if (!entryRoots.isEmpty()) {
+            report.append("所属入口方法: ").append(entryRoots.size()).append("\n");
+            entryRoots.forEach(entryRoot -> report.append("  - ").append(entryRoot.getMethodSignature()).append("\n"));
+        }
         report.append("发现问题数: ").append(violations.size()).append("\n\n");
 
         // AI智能分析结果（已包含问题详情和改进建议）
@@ -214,7 +267,7 @@ public class CodeStandardCheckAction extends AnAction {
             className = psiClass.getName();
         }
 
-        // 执行检查
-        performCheck(methodName, className, project);
+        // 执行检查，带上参数类型以区分重载方法
+        performCheck(methodName, className, CallChainAnalyzer.erasedParameterTypes(method), project);
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.demo.action;
+
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.BatchScanService;
+import com.example.demo.ui.BatchScanResultDialog;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.PlatformCoreDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import java.util.List;
+
+/**
+ * 批量扫描Action
+ * 扫描项目（或选中模块）中所有适配器层入口方法，汇总云开发范式违规情况
+ */
+public class ScanAllAdaptersAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            showErrorDialog("无法获取当前项目", "错误");
+            return;
+        }
+
+        // 在项目视图中选中模块时只扫描该模块
+        Module module = e.getData(PlatformCoreDataKeys.MODULE);
+        GlobalSearchScope scope = module != null
+                ? module.getModuleScope()
+                : GlobalSearchScope.projectScope(project);
+        String scopeName = module != null ? module.getName() : project.getName();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "云开发规范批量扫描", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    indicator.setText("查找适配器层入口方法...");
+                    indicator.setIndeterminate(false);
+                    BatchScanService scanService = BatchScanService.getInstance(project);
+                    List<BatchScanService.EntryPoint> entryPoints = scanService.findEntryPoints(scope);
+                    if (entryPoints.isEmpty()) {
+                        SwingUtilities.invokeLater(() ->
+                                showInfoDialog("未在 " + scopeName + " 中找到适配器层入口方法", "提示"));
+                        return;
+                    }
+
+                    indicator.setText("分析 " + entryPoints.size() + " 个入口方法...");
+                    long start = System.currentTimeMillis();
+                    List<BatchScanService.ScanResult> results = scanService.scan(entryPoints, indicator);
+                    String report = generateReport(scopeName, results, System.currentTimeMillis() - start);
+
+                    SwingUtilities.invokeLater(() -> new BatchScanResultDialog(results, report).show());
+
+                } catch (ProcessCanceledException ex) {
+                    // 用户取消扫描
+                    throw ex;
+                } catch (Exception ex) {
+                    SwingUtilities.invokeLater(() ->
+                            showErrorDialog("扫描过程中发生错误: " + ex.getMessage(), "错误"));
+                }
+            }
+        });
+    }
+
+    /**
+     * 生成批量扫描报告
+     */
+    private String generateReport(String scopeName, List<BatchScanService.ScanResult> results, long elapsedMillis) {
+        int totalViolations = results.stream().mapToInt(result -> result.getViolations().size()).sum();
+        long failed = results.stream().filter(result -> result.getCallChain().isFailed()).count();
+
+        StringBuilder report = new StringBuilder();
+        report.append("=== 云开发规范批量扫描报告 ===\n\n");
+        report.append("扫描范围: ").append(scopeName).append("\n");
+        report.append("入口方法数: ").append(results.size()).append("\n");
+        report.append("发现问题数: ").append(totalViolations).append("\n");
+        if (failed > 0) {
+            report.append("分析失败的入口数: ").append(failed).append("\n");
+        }
+        report.append("耗时: ").append(elapsedMillis).append("ms\n\n");
+
+        for (BatchScanService.ScanResult result : results) {
+            if (result.getCallChain().isFailed()) {
+                report.append("--- ").append(result.getEntryPoint()).append(" ---\n");
+                report.append("分析失败: ").append(result.getCallChain().getFailureReason()).append("\n");
+                continue;
+            }
+            if (result.getViolations().isEmpty()) continue;
+            report.append("--- ").append(result.getEntryPoint()).append(" ---\n");
+            result.getViolations().stream()
+                    .sorted((v1, v2) -> Integer.compare(v2.getSeverityLevel(), v1.getSeverityLevel()))
+                    .map(RuleViolation::toReportString)
+                    .forEach(text -> report.append(text).append("\n"));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * 显示信息对话框
+     */
+    private void showInfoDialog(String message, String title) {
+        JOptionPane.showMessageDialog(null, message, title, JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * 显示错误对话框
+     */
+    private void showErrorDialog(String message, String title) {
+        JOptionPane.showMessageDialog(null, message, title, JOptionPane.ERROR_MESSAGE);
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调用点索引
+ * 按文件记录 调用方方法起始偏移 -> 方法体内调用点偏移 的邻接关系，
+ * 调用点包括方法调用、new表达式和方法引用，
+ * 由平台在文件变更时增量更新，分析时无需再遍历方法体
+ */
+public class CallSiteIndex extends FileBasedIndexExtension<Integer, int[]> {
+
+    public static final ID<Integer, int[]> NAME = ID.create("com.example.demo.CallSiteIndex");
+
+    private static final int VERSION = 3;
+
+    @Override
+    public @NotNull ID<Integer, int[]> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<Integer, int[], FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof PsiJavaFile)) {
+                return Map.of();
+            }
+
+            Map<Integer, List<Integer>> sitesByCaller = new HashMap<>();
+            psiFile.accept(new CallSiteVisitor() {
+                @Override
+                protected void visitCallSite(@NotNull PsiMethod caller, @NotNull String calleeName,
+                                             @NotNull PsiElement nameElement) {
+                    sitesByCaller.computeIfAbsent(caller.getTextRange().getStartOffset(), k -> new ArrayList<>())
+                            .add(nameElement.getTextRange().getStartOffset());
+                }
+            });
+
+            Map<Integer, int[]> result = new HashMap<>();
+            for (Map.Entry<Integer, List<Integer>> entry : sitesByCaller.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<Integer> getKeyDescriptor() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<int[]> getValueExternalizer() {
+        return IntArrayExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.index;
+
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiAnonymousClass;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiJavaCodeReferenceElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.PsiUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 调用点遍历器
+ * 单次遍历文件，报告方法内的方法调用、new表达式（构造方法调用）和方法引用，
+ * 供各调用关系索引共用。
+ * 匿名类和局部类方法中的调用点归属于包含该类的具名方法，与遍历方法体的 CallTargetCollector 一致
+ */
+abstract class CallSiteVisitor extends JavaRecursiveElementWalkingVisitor {
+
+    /**
+     * @param caller 调用点所在的方法
+     * @param calleeName 被调用方法名，构造方法调用为类名
+     * @param nameElement 调用点中被调用方法名对应的元素
+     */
+    protected abstract void visitCallSite(@NotNull PsiMethod caller, @NotNull String calleeName,
+                                          @NotNull PsiElement nameElement);
+
+    @Override
+    public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+        super.visitMethodCallExpression(expression);
+        report(expression, expression.getMethodExpression().getReferenceNameElement(), null);
+    }
+
+    @Override
+    public void visitNewExpression(@NotNull PsiNewExpression expression) {
+        super.visitNewExpression(expression);
+        // 数组创建没有类引用；匿名类的类引用在匿名类上
+        PsiJavaCodeReferenceElement classReference = expression.getClassOrAnonymousClassReference();
+        if (classReference != null && expression.getArrayDimensions().length == 0
+                && expression.getArrayInitializer() == null) {
+            report(expression, classReference.getReferenceNameElement(), null);
+        }
+    }
+
+    @Override
+    public void visitMethodReferenceExpression(@NotNull PsiMethodReferenceExpression expression) {
+        super.visitMethodReferenceExpression(expression);
+        if (expression.isConstructor()) {
+            // Foo::new 的名称元素是new关键字，构造方法名取限定的类名
+            PsiElement qualifier = expression.getQualifier();
+            if (qualifier instanceof PsiJavaCodeReferenceElement) {
+                report(expression, expression.getReferenceNameElement(),
+                        ((PsiJavaCodeReferenceElement) qualifier).getReferenceName());
+            }
+        } else {
+            report(expression, expression.getReferenceNameElement(), null);
+        }
+    }
+
+    /**
+     * 调用点对应的被调用方法名，与索引中的键一致：方法调用和方法引用取方法名，构造方法调用和 Foo::new 取类名
+     * @return 元素不是调用点（含数组创建）时返回null
+     */
+    public static String calleeNameOf(PsiElement element) {
+        if (element instanceof PsiMethodCallExpression) {
+            return ((PsiMethodCallExpression) element).getMethodExpression().getReferenceName();
+        }
+        if (element instanceof PsiNewExpression) {
+            PsiNewExpression expression = (PsiNewExpression) element;
+            PsiJavaCodeReferenceElement classReference = expression.getClassOrAnonymousClassReference();
+            return classReference != null && expression.getArrayDimensions().length == 0
+                    && expression.getArrayInitializer() == null ? classReference.getReferenceName() : null;
+        }
+        if (element instanceof PsiMethodReferenceExpression) {
+            PsiMethodReferenceExpression expression = (PsiMethodReferenceExpression) element;
+            if (!expression.isConstructor()) {
+                return expression.getReferenceName();
+            }
+            PsiElement qualifier = expression.getQualifier();
+            return qualifier instanceof PsiJavaCodeReferenceElement
+                    ? ((PsiJavaCodeReferenceElement) qualifier).getReferenceName() : null;
+        }
+        return null;
+    }
+
+    private void report(PsiElement callSite, PsiElement nameElement, String calleeName) {
+        PsiMethod caller = getEnclosingNamedMethod(callSite);
+        if (caller == null || nameElement == null) return;
+        String name = calleeName != null ? calleeName : nameElement.getText();
+        if (name != null) {
+            visitCallSite(caller, name, nameElement);
+        }
+    }
+
+    /**
+     * 调用点所属的方法：跳过匿名类和局部类中的方法，取包含这些类的最外层方法；
+     * 类不在方法中（如字段初始化的匿名类）时取类中的方法
+     */
+    private static PsiMethod getEnclosingNamedMethod(PsiElement callSite) {
+        PsiMethod method = PsiTreeUtil.getParentOfType(callSite, PsiMethod.class);
+        while (method != null) {
+            PsiClass containingClass = method.getContainingClass();
+            if (!(containingClass instanceof PsiAnonymousClass)
+                    && (containingClass == null || !PsiUtil.isLocalClass(containingClass))) {
+                break;
+            }
+            PsiMethod outer = PsiTreeUtil.getParentOfType(containingClass, PsiMethod.class);
+            if (outer == null) break;
+            method = outer;
+        }
+        return method;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.index;
+
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiMethod;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 调用方反向索引
+ * 按文件记录 被调用方法名（构造方法为类名） -> (调用方方法起始偏移, 调用点偏移) 的反向邻接关系，
+ * 值为依次排列的偏移对。向上查找调用方时只需按方法名查询索引，再只解析同名的调用点校验候选调用方，
+ * 无需执行引用搜索
+ */
+public class CallerIndex extends FileBasedIndexExtension<String, int[]> {
+
+    public static final ID<String, int[]> NAME = ID.create("com.example.demo.CallerIndex");
+
+    private static final int VERSION = 4;
+
+    @Override
+    public @NotNull ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> {
+            PsiFile psiFile = inputData.getPsiFile();
+            if (!(psiFile instanceof PsiJavaFile)) {
+                return Map.of();
+            }
+
+            Map<String, List<Integer>> callersByName = new HashMap<>();
+            psiFile.accept(new CallSiteVisitor() {
+                @Override
+                protected void visitCallSite(@NotNull PsiMethod caller, @NotNull String calleeName,
+                                             @NotNull PsiElement nameElement) {
+                    List<Integer> offsets = callersByName.computeIfAbsent(calleeName, k -> new ArrayList<>());
+                    offsets.add(caller.getTextRange().getStartOffset());
+                    offsets.add(nameElement.getTextRange().getStartOffset());
+                }
+            });
+
+            Map<String, int[]> result = new HashMap<>();
+            for (Map.Entry<String, List<Integer>> entry : callersByName.entrySet()) {
+                result.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<int[]> getValueExternalizer() {
+        return IntArrayExternalizer.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(JavaFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+}
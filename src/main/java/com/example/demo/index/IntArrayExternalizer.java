@@ -0,0 +1,37 @@
+package com.example.demo.index;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 偏移量数组的序列化，使用变长整数编码
+ */
+final class IntArrayExternalizer implements DataExternalizer<int[]> {
+
+    static final IntArrayExternalizer INSTANCE = new IntArrayExternalizer();
+
+    private IntArrayExternalizer() {
+    }
+
+    @Override
+    public void save(@NotNull DataOutput out, int[] value) throws IOException {
+        DataInputOutputUtil.writeINT(out, value.length);
+        for (int offset : value) {
+            DataInputOutputUtil.writeINT(out, offset);
+        }
+    }
+
+    @Override
+    public int[] read(@NotNull DataInput in) throws IOException {
+        int[] value = new int[DataInputOutputUtil.readINT(in)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = DataInputOutputUtil.readINT(in);
+        }
+        return value;
+    }
+}
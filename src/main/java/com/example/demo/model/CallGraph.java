@@ -0,0 +1,171 @@
+package com.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 紧凑调用图模型
+ * 节点使用int编号，边先按追加顺序记录，读取时压缩为CSR(offsets + targets)邻接数组
+ * 循环调用通过 {@link #getStronglyConnectedComponents()} 缩点处理
+ */
+public class CallGraph {
+    private final List<MethodInfo> nodes;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int edgeCount;
+
+    // 以下字段由节点和边列表派生，不参与序列化
+    private transient Map<Integer, Integer> nodeIds;
+    private transient Set<Long> edgeKeys;
+    private transient int[] offsets;
+    private transient int[] targets;
+    private transient StronglyConnectedComponents components;
+
+    public CallGraph() {
+        this.nodes = new ArrayList<>();
+        this.edgeFrom = new int[16];
+        this.edgeTo = new int[16];
+    }
+
+    /**
+     * 添加节点，同一方法（类名、方法名和参数类型相同）只保留一个节点
+     * @return 节点编号
+     */
+    public int addNode(MethodInfo method) {
+        int key = method.getMethodId().getId();
+        Integer id = nodeIds().get(key);
+        if (id != null) {
+            return id;
+        }
+        int newId = nodes.size();
+        nodes.add(method);
+        nodeIds().put(key, newId);
+        offsets = null;
+        components = null;
+        return newId;
+    }
+
+    /**
+     * 添加调用边，重复的边会被忽略
+     */
+    public void addEdge(int from, int to) {
+        if (!edgeKeys().add(((long) from << 32) | (to & 0xffffffffL))) {
+            return;
+        }
+        if (edgeCount == edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+            edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+        }
+        edgeFrom[edgeCount] = from;
+        edgeTo[edgeCount] = to;
+        edgeCount++;
+        offsets = null;
+        components = null;
+    }
+
+    /**
+     * 根据方法标识查找节点编号
+     * @return 节点编号，不存在时返回-1
+     */
+    public int findNode(MethodId methodId) {
+        Integer id = nodeIds().get(methodId.getId());
+        return id != null ? id : -1;
+    }
+
+    public MethodInfo getNode(int id) {
+        return nodes.get(id);
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * 节点出边在邻接数组中的起始位置（含）
+     */
+    public int getCalleeStart(int node) {
+        compact();
+        return offsets[node];
+    }
+
+    /**
+     * 节点出边在邻接数组中的结束位置（不含）
+     */
+    public int getCalleeEnd(int node) {
+        compact();
+        return offsets[node + 1];
+    }
+
+    /**
+     * 获取邻接数组中指定位置的被调用节点
+     */
+    public int getCalleeAt(int index) {
+        compact();
+        return targets[index];
+    }
+
+    /**
+     * 获取强连通分量，图未修改时复用上次的计算结果
+     */
+    public StronglyConnectedComponents getStronglyConnectedComponents() {
+        if (components == null) {
+            components = new StronglyConnectedComponents(this);
+        }
+        return components;
+    }
+
+    /**
+     * 按调用方计数排序，构建CSR邻接数组，同一调用方的边保持添加顺序
+     */
+    private void compact() {
+        if (offsets != null) {
+            return;
+        }
+        int nodeCount = nodes.size();
+        int[] newOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            newOffsets[edgeFrom[i] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            newOffsets[i + 1] += newOffsets[i];
+        }
+        int[] cursor = Arrays.copyOf(newOffsets, nodeCount);
+        int[] newTargets = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            newTargets[cursor[edgeFrom[i]]++] = edgeTo[i];
+        }
+        targets = newTargets;
+        offsets = newOffsets;
+    }
+
+    private Map<Integer, Integer> nodeIds() {
+        if (nodeIds == null) {
+            // 反序列化后根据节点列表重建
+            nodeIds = new HashMap<>();
+            for (int i = 0; i < nodes.size(); i++) {
+                nodeIds.put(nodes.get(i).getMethodId().getId(), i);
+            }
+        }
+        return nodeIds;
+    }
+
+    private Set<Long> edgeKeys() {
+        if (edgeKeys == null) {
+            // 反序列化后根据边列表重建
+            edgeKeys = new HashSet<>();
+            for (int i = 0; i < edgeCount; i++) {
+                edgeKeys.add(((long) edgeFrom[i] << 32) | (edgeTo[i] & 0xffffffffL));
+            }
+        }
+        return edgeKeys;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.model;
+
+/**
+ * 调用图的层次可达性
+ * 以位图表示层次集合，按强连通分量的逆拓扑序传播一次即可得到每个方法
+ * 不经过指定屏障层能间接到达的所有层次，时间与节点数和边数成线性关系，
+ * 用于回答"适配器层是否绕过应用层访问了数据访问层"这类传递性的架构问题。
+ * 分量中含有屏障层方法时，无法区分分量内部的路径是否经过屏障层，分量内部只计算一步调用
+ */
+public final class LayerReachability {
+
+    public static final int ADAPTER = 1;
+    public static final int APPLICATION = 1 << 1;
+    public static final int DOMAIN = 1 << 2;
+    public static final int INFRASTRUCTURE = 1 << 3;
+    /**
+     * 数据访问类（Mapper、Repository、Dao及其实现），同时属于基础设施层
+     */
+    public static final int DATA_ACCESS = 1 << 4;
+
+    private final CallGraph graph;
+    private final StronglyConnectedComponents components;
+    private final int barrierMask;
+    private final int[] layerBits;
+    private final int[] componentReach;
+    private final boolean[] mixedCycle; // 循环分量中含有屏障层方法
+
+    /**
+     * @param barrierMask 屏障层位图，经过这些层的调用路径不计入可达性
+     */
+    public LayerReachability(CallGraph graph, int barrierMask) {
+        this.graph = graph;
+        this.components = graph.getStronglyConnectedComponents();
+        this.barrierMask = barrierMask;
+
+        int nodeCount = graph.getNodeCount();
+        this.layerBits = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            layerBits[node] = layerBitsOf(graph.getNode(node));
+        }
+
+        int componentCount = components.getComponentCount();
+        int[] componentLayers = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            for (int m = components.getMemberStart(c); m < components.getMemberEnd(c); m++) {
+                componentLayers[c] |= layerBits[components.getMemberAt(m)];
+            }
+        }
+
+        this.mixedCycle = new boolean[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            mixedCycle[c] = components.isCyclic(c) && (componentLayers[c] & barrierMask) != 0;
+        }
+
+        // 被调用分量的编号总是更小，按编号递增处理时其可达性已经算好
+        this.componentReach = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            int reach = 0;
+            for (int e = components.getCondensedCalleeStart(c); e < components.getCondensedCalleeEnd(c); e++) {
+                int callee = components.getCondensedCalleeAt(e);
+                reach |= componentLayers[callee];
+                if ((componentLayers[callee] & barrierMask) == 0) {
+                    reach |= componentReach[callee];
+                }
+            }
+            if (components.isCyclic(c) && (componentLayers[c] & barrierMask) == 0) {
+                // 分量内的方法相互可达
+                reach |= componentLayers[c];
+            }
+            componentReach[c] = reach;
+        }
+    }
+
+    /**
+     * 方法所属层次的位图
+     * 除4层架构的层次外，也识别按包名或类名划分的传统层次（CONTROLLER、SERVICE、DAO、REPOSITORY），
+     * 如模拟模式生成的链路
+     */
+    public static int layerBitsOf(MethodInfo method) {
+        String layerType = method.getLayerType();
+        int bits = 0;
+        if ("ADAPTER".equals(layerType) || "CONTROLLER".equals(layerType)) {
+            bits = ADAPTER;
+        } else if ("APPLICATION".equals(layerType) || "SERVICE".equals(layerType)) {
+            bits = APPLICATION;
+        } else if ("DOMAIN".equals(layerType)) {
+            bits = DOMAIN;
+        } else if ("INFRASTRUCTURE".equals(layerType)) {
+            bits = INFRASTRUCTURE;
+        } else if ("DAO".equals(layerType) || "REPOSITORY".equals(layerType)) {
+            bits = DATA_ACCESS | INFRASTRUCTURE;
+        }
+        String className = method.getClassName();
+        if (className != null) {
+            String simpleName = className.substring(className.lastIndexOf('.') + 1).toLowerCase();
+            if (simpleName.endsWith("impl")) {
+                simpleName = simpleName.substring(0, simpleName.length() - "impl".length());
+            }
+            if (simpleName.endsWith("mapper") || simpleName.endsWith("repository") || simpleName.endsWith("dao")) {
+                bits |= DATA_ACCESS | INFRASTRUCTURE;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 节点所属层次的位图
+     */
+    public int getLayerBits(int node) {
+        return layerBits[node];
+    }
+
+    /**
+     * 节点经过至少一个中间方法、且中间方法都不属于屏障层时能到达的层次（不含直接调用的方法所属的层次，
+     * 除非更深的调用再次到达该层次）
+     */
+    public int getIndirectReach(int node) {
+        int reach = 0;
+        for (int e = graph.getCalleeStart(node); e < graph.getCalleeEnd(node); e++) {
+            int callee = graph.getCalleeAt(e);
+            if ((layerBits[callee] & barrierMask) == 0) {
+                reach |= reachFrom(callee);
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * 从不属于屏障层的节点出发，不经过屏障层能到达的层次
+     */
+    private int reachFrom(int node) {
+        int component = components.getComponent(node);
+        if (!mixedCycle[component]) {
+            return componentReach[component];
+        }
+        // 循环分量内含屏障层方法：只计算节点的直接调用，分量外的被调用方法沿用其分量的可达性
+        int reach = 0;
+        for (int e = graph.getCalleeStart(node); e < graph.getCalleeEnd(node); e++) {
+            int callee = graph.getCalleeAt(e);
+            reach |= layerBits[callee];
+            int calleeComponent = components.getComponent(callee);
+            if (calleeComponent != component && (layerBits[callee] & barrierMask) == 0
+                    && !mixedCycle[calleeComponent]) {
+                reach |= componentReach[calleeComponent];
+            }
+        }
+        return reach;
+    }
+}
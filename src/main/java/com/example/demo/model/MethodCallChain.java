@@ -1,9 +1,13 @@
 package com.example.demo.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 方法调用链路模型
@@ -13,10 +17,22 @@ public class MethodCallChain {
     private MethodInfo rootMethod;
     private Map<Integer, List<MethodInfo>> callsByDepth;
     private List<MethodInfo> allMethods;
+    private CallGraph callGraph;
+    private boolean truncated;
+    private String truncationReason;
+    private String failureReason;
+    private Set<String> sourceFiles;
+    private Set<String> callerLookupNames;
+    private List<MethodInfo> entryRoots;
+    private boolean entryRootsIncomplete;
     
     public MethodCallChain() {
         this.callsByDepth = new HashMap<>();
         this.allMethods = new ArrayList<>();
+        this.callGraph = new CallGraph();
+        this.sourceFiles = new LinkedHashSet<>();
+        this.callerLookupNames = new LinkedHashSet<>();
+        this.entryRoots = new ArrayList<>();
     }
     
     public MethodInfo getRootMethod() {
@@ -27,17 +43,138 @@ public class MethodCallChain {
         this.rootMethod = rootMethod;
         if (rootMethod != null) {
             this.allMethods.add(rootMethod);
+            this.callGraph.addNode(rootMethod);
         }
     }
     
     /**
-     * 添加方法调用
+     * 添加能到达根方法的入口（适配器层）方法
+     */
+    public void addEntryRoot(MethodInfo entryRoot) {
+        entryRoots.add(entryRoot);
+    }
+    
+    /**
+     * 获取能到达根方法的所有入口方法，按调用距离由近到远排列
+     */
+    public List<MethodInfo> getEntryRoots() {
+        return new ArrayList<>(entryRoots);
+    }
+    
+    /**
+     * 标记入口方法查找因预算耗尽提前停止，入口方法可能不完整，链路同时标记为截断
+     */
+    public void markEntryRootsIncomplete(String reason) {
+        this.entryRootsIncomplete = true;
+        markTruncated(reason);
+    }
+    
+    public boolean isEntryRootsIncomplete() {
+        return entryRootsIncomplete;
+    }
+    
+    /**
+     * 添加方法调用（不记录调用方，调用图中只增加节点）
      * @param method 被调用的方法
      * @param depth 调用深度
      */
     public void addMethodCall(MethodInfo method, int depth) {
         callsByDepth.computeIfAbsent(depth, k -> new ArrayList<>()).add(method);
         allMethods.add(method);
+        callGraph.addNode(method);
+    }
+    
+    /**
+     * 添加方法调用，同时在调用图中记录 调用方 -> 被调用方 的边
+     * @param caller 调用方
+     * @param callee 被调用的方法
+     * @param depth 被调用方法的调用深度
+     */
+    public void addMethodCall(MethodInfo caller, MethodInfo callee, int depth) {
+        addMethodCall(callee, depth);
+        callGraph.addEdge(callGraph.addNode(caller), callGraph.findNode(callee.getMethodId()));
+    }
+    
+    /**
+     * 获取调用图
+     */
+    public CallGraph getCallGraph() {
+        return callGraph;
+    }
+    
+    /**
+     * 是否因分析预算耗尽而只包含部分调用
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    public String getTruncationReason() {
+        return truncationReason;
+    }
+    
+    /**
+     * 标记分析失败（如找不到目标方法或分析过程中出错），链路为空且同时标记为截断，
+     * 调用方应将其作为失败展示，不进行规则检查或缓存
+     */
+    public void markFailed(String reason) {
+        this.failureReason = reason;
+        markTruncated(reason);
+    }
+    
+    public boolean isFailed() {
+        return failureReason != null;
+    }
+    
+    public String getFailureReason() {
+        return failureReason;
+    }
+    
+    /**
+     * 标记调用链路被截断，只保留第一次截断的原因
+     */
+    public void markTruncated(String reason) {
+        if (!truncated) {
+            this.truncated = true;
+            this.truncationReason = reason;
+        }
+    }
+    
+    /**
+     * 记录链路分析时读取过的源文件URL，这些文件修改后链路即过期
+     */
+    public void addSourceFile(String fileUrl) {
+        if (fileUrl != null) {
+            sourceFiles.add(fileUrl);
+        }
+    }
+    
+    public void addSourceFiles(Collection<String> fileUrls) {
+        fileUrls.forEach(this::addSourceFile);
+    }
+    
+    /**
+     * 获取链路依赖的源文件URL，模拟模式下为空
+     */
+    public Set<String> getSourceFiles() {
+        return Collections.unmodifiableSet(sourceFiles);
+    }
+    
+    /**
+     * 记录查找入口方法时查找过调用方的方法名，任何文件中新增对这些方法的调用都可能改变入口方法
+     */
+    public void addCallerLookupName(String methodName) {
+        if (methodName != null) {
+            callerLookupNames.add(methodName);
+        }
+    }
+    
+    public void addCallerLookupNames(Collection<String> methodNames) {
+        methodNames.forEach(this::addCallerLookupName);
+    }
+    
+    public Set<String> getCallerLookupNames() {
+        return Collections.unmodifiableSet(callerLookupNames);
     }
     
     /**
@@ -55,10 +192,20 @@ public class MethodCallChain {
     }
     
     /**
-     * 获取所有方法
+     * 获取所有方法（按调用出现的顺序，被多处调用的方法会出现多次）
+     * 返回只读视图，不复制列表；需要去重时使用调用图的节点
      */
     public List<MethodInfo> getAllMethods() {
-        return new ArrayList<>(allMethods);
+        return Collections.unmodifiableList(allMethods);
+    }
+    
+    /**
+     * 根据方法标识查找链路中的方法
+     * @return 方法信息，不在链路中时返回null
+     */
+    public MethodInfo findMethod(MethodId methodId) {
+        int node = callGraph.findNode(methodId);
+        return node >= 0 ? callGraph.getNode(node) : null;
     }
     
     /**
@@ -77,14 +224,21 @@ public class MethodCallChain {
     
     /**
      * 生成调用链路的文本表示
+     * 按调用图的真实边展开，已展开过的方法只标记不再重复展开
      */
     public String toTreeString() {
         StringBuilder sb = new StringBuilder();
         
         if (rootMethod != null) {
             sb.append("Root: ").append(rootMethod.getMethodSignature()).append("\n");
+            int root = callGraph.findNode(rootMethod.getMethodId());
+            if (root >= 0 && callGraph.getEdgeCount() > 0) {
+                appendCallees(sb, root, 1, new boolean[callGraph.getNodeCount()]);
+                return sb.toString();
+            }
         }
         
+        // 没有调用边信息时按深度输出
         for (int depth = 1; depth <= getMaxDepth(); depth++) {
             List<MethodInfo> methods = getMethodsAtDepth(depth);
             for (MethodInfo method : methods) {
@@ -99,12 +253,43 @@ public class MethodCallChain {
         return sb.toString();
     }
     
+    private void appendCallees(StringBuilder sb, int node, int depth, boolean[] expanded) {
+        expanded[node] = true;
+        for (int e = callGraph.getCalleeStart(node); e < callGraph.getCalleeEnd(node); e++) {
+            int callee = callGraph.getCalleeAt(e);
+            for (int i = 0; i < depth; i++) {
+                sb.append("  ");
+            }
+            sb.append("├─ ").append(callGraph.getNode(callee).getMethodSignature());
+            if (expanded[callee] && isRecursiveCall(node, callee)) {
+                sb.append(" (循环调用)\n");
+            } else if (expanded[callee]) {
+                sb.append(" (...)\n");
+            } else {
+                sb.append("\n");
+                appendCallees(sb, callee, depth + 1, expanded);
+            }
+        }
+    }
+    
+    /**
+     * 调用方与被调用方处于同一个循环调用的强连通分量中
+     */
+    private boolean isRecursiveCall(int caller, int callee) {
+        StronglyConnectedComponents components = callGraph.getStronglyConnectedComponents();
+        int component = components.getComponent(caller);
+        return components.isCyclic(component) && components.getComponent(callee) == component;
+    }
+    
     @Override
     public String toString() {
         return "MethodCallChain{" +
                 "rootMethod=" + (rootMethod != null ? rootMethod.getMethodName() : "null") +
                 ", totalMethods=" + getTotalMethodCount() +
                 ", maxDepth=" + getMaxDepth() +
+                ", edges=" + callGraph.getEdgeCount() +
+                ", entryRoots=" + entryRoots.size() +
+                ", truncated=" + truncated +
                 '}';
     }
 }
\ No newline at end of file
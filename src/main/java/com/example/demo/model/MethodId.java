@@ -0,0 +1,124 @@
+package com.example.demo.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 方法标识
+ * 由类名、方法名和擦除后的参数类型组成，能够区分重载方法。
+ * 实例经规范表驻留：同时在用的相同方法总是得到同一个实例和同一个int编号，
+ * 访问标记和调用图节点可以直接比较实例或编号，不必拼接字符串。
+ * 规范表只弱引用实例：调用链路、PSI缓存等不再使用某个标识后（如项目关闭、批量扫描结束）其记录随之清除，
+ * 之后再次获取该方法的标识会分配新的编号；编号不会重复使用，也不稳定，需要跨分析保存的键（如缓存键）
+ * 应使用 {@link #getSignature()}
+ */
+public final class MethodId {
+    private static final Map<String, KeyedReference> CANONICAL = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<MethodId> COLLECTED = new ReferenceQueue<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
+    private final String signature;
+    private final String className;
+    private final String methodName;
+    private final String parameterTypes;
+
+    private MethodId(int id, String signature, String className, String methodName, String parameterTypes) {
+        this.id = id;
+        this.signature = signature;
+        this.className = className;
+        this.methodName = methodName;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * 获取方法的规范标识
+     * @param parameterTypes 擦除后的参数类型，以逗号分隔，如 "java.lang.String,int"
+     */
+    public static MethodId of(String className, String methodName, String parameterTypes) {
+        String types = parameterTypes != null ? parameterTypes : "";
+        String key = className + "#" + methodName + "(" + types + ")";
+        expungeCollected();
+        while (true) {
+            KeyedReference reference = CANONICAL.get(key);
+            MethodId existing = reference != null ? reference.get() : null;
+            if (existing != null) return existing;
+            MethodId created = new MethodId(NEXT_ID.getAndIncrement(), key, className, methodName, types);
+            KeyedReference createdReference = new KeyedReference(key, created);
+            boolean published = reference == null
+                    ? CANONICAL.putIfAbsent(key, createdReference) == null
+                    : CANONICAL.replace(key, reference, createdReference);
+            if (published) return created;
+            // 其他线程已驻留该方法，重新读取
+        }
+    }
+
+    /**
+     * 清除实例已被回收的记录
+     */
+    private static void expungeCollected() {
+        Reference<? extends MethodId> reference;
+        while ((reference = COLLECTED.poll()) != null) {
+            KeyedReference keyed = (KeyedReference) reference;
+            CANONICAL.remove(keyed.key, keyed);
+        }
+    }
+
+    /**
+     * 规范编号，从0开始递增分配且不重复使用；同一方法的记录被清除后再次获取会得到新的编号
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * 方法签名，如 "com.example.UserService#find(java.lang.String,int)"，同一方法总是相同
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getParameterTypes() {
+        return parameterTypes;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof MethodId && ((MethodId) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName + "(" + parameterTypes + ")";
+    }
+
+    /**
+     * 规范表中的弱引用，记录键以便实例回收后清除记录
+     */
+    private static final class KeyedReference extends WeakReference<MethodId> {
+        private final String key;
+
+        KeyedReference(String key, MethodId methodId) {
+            super(methodId, COLLECTED);
+            this.key = key;
+        }
+    }
+}
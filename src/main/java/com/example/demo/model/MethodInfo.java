@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -14,6 +15,25 @@ public class MethodInfo {
     private List<String> annotations;
     private String packageName;
     private String layerType; // 控制层、服务层、数据层等
+    private String erasedParameterTypes; // 擦除后的参数类型，用于区分重载方法
+    private transient MethodId methodId;
+    
+    public MethodInfo() {}
+    
+    /**
+     * 复制构造函数，用于从缓存的实例派生可修改的副本
+     */
+    public MethodInfo(MethodInfo other) {
+        this.methodName = other.methodName;
+        this.className = other.className;
+        this.returnType = other.returnType;
+        this.parameters = other.parameters != null ? new ArrayList<>(other.parameters) : null;
+        this.annotations = other.annotations != null ? new ArrayList<>(other.annotations) : null;
+        this.packageName = other.packageName;
+        this.layerType = other.layerType;
+        this.erasedParameterTypes = other.erasedParameterTypes;
+        this.methodId = other.methodId;
+    }
     
     // Getters and Setters
     public String getMethodName() {
@@ -22,6 +42,7 @@ public class MethodInfo {
     
     public void setMethodName(String methodName) {
         this.methodName = methodName;
+        this.methodId = null;
     }
     
     public String getClassName() {
@@ -30,6 +51,7 @@ public class MethodInfo {
     
     public void setClassName(String className) {
         this.className = className;
+        this.methodId = null;
         // 根据类名推断包名
         if (className != null && className.contains(".")) {
             int lastDotIndex = className.lastIndexOf(".");
@@ -51,6 +73,40 @@ public class MethodInfo {
     
     public void setParameters(List<String> parameters) {
         this.parameters = parameters;
+        this.methodId = null;
+    }
+    
+    public String getErasedParameterTypes() {
+        return erasedParameterTypes;
+    }
+    
+    /**
+     * @param erasedParameterTypes 擦除后的参数类型，以逗号分隔，如 "java.lang.String,int"
+     */
+    public void setErasedParameterTypes(String erasedParameterTypes) {
+        this.erasedParameterTypes = erasedParameterTypes;
+        this.methodId = null;
+    }
+    
+    /**
+     * 获取方法的规范标识
+     * 未设置擦除后的参数类型时，取参数声明中的类型部分（如 "Object param" 取 "Object"）
+     */
+    public MethodId getMethodId() {
+        if (methodId == null) {
+            String parameterTypes = erasedParameterTypes;
+            if (parameterTypes == null && parameters != null) {
+                StringBuilder types = new StringBuilder();
+                for (String parameter : parameters) {
+                    if (types.length() > 0) types.append(',');
+                    int space = parameter.lastIndexOf(' ');
+                    types.append(space > 0 ? parameter.substring(0, space) : parameter);
+                }
+                parameterTypes = types.toString();
+            }
+            methodId = MethodId.of(className, methodName, parameterTypes);
+        }
+        return methodId;
     }
     
     public List<String> getAnnotations() {
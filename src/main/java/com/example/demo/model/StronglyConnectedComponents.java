@@ -0,0 +1,186 @@
+package com.example.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * 调用图的强连通分量
+ * 使用迭代版Tarjan算法计算，递归或相互调用的方法归入同一分量，
+ * 每个分量在缩点图中作为一个超级节点，缩点图无环。
+ * 分量编号为逆拓扑序：被调用方所在分量的编号不大于调用方
+ */
+public final class StronglyConnectedComponents {
+    private final int[] componentOf;
+    private final int componentCount;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final boolean[] cyclic;
+    private final int[] condensedOffsets;
+    private final int[] condensedTargets;
+
+    StronglyConnectedComponents(CallGraph graph) {
+        int nodeCount = graph.getNodeCount();
+        int[] index = new int[nodeCount];
+        int[] low = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] callStack = new int[nodeCount];
+        int[] edgeCursor = new int[nodeCount];
+        Arrays.fill(index, -1);
+        this.componentOf = new int[nodeCount];
+
+        int nextIndex = 0;
+        int components = 0;
+        int sp = 0;
+        for (int start = 0; start < nodeCount; start++) {
+            if (index[start] != -1) continue;
+            int csp = 0;
+            index[start] = low[start] = nextIndex++;
+            stack[sp++] = start;
+            onStack[start] = true;
+            callStack[csp++] = start;
+            edgeCursor[start] = graph.getCalleeStart(start);
+
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (edgeCursor[v] < graph.getCalleeEnd(v)) {
+                    int w = graph.getCalleeAt(edgeCursor[v]++);
+                    if (index[w] == -1) {
+                        // 相当于递归访问w
+                        index[w] = low[w] = nextIndex++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[csp++] = w;
+                        edgeCursor[w] = graph.getCalleeStart(w);
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                // v的出边已处理完，相当于递归返回
+                csp--;
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--sp];
+                        onStack[w] = false;
+                        componentOf[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+            }
+        }
+        this.componentCount = components;
+
+        // 按分量分组节点
+        this.memberOffsets = new int[components + 1];
+        for (int node = 0; node < nodeCount; node++) {
+            memberOffsets[componentOf[node] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] cursor = Arrays.copyOf(memberOffsets, components);
+        this.members = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            members[cursor[componentOf[node]]++] = node;
+        }
+
+        // 构建缩点图：分量之间的边去重，分量内部的边只用于判断是否成环
+        this.cyclic = new boolean[components];
+        this.condensedOffsets = new int[components + 1];
+        int[] targets = new int[graph.getEdgeCount()];
+        int[] lastSeen = new int[components];
+        Arrays.fill(lastSeen, -1);
+        int count = 0;
+        for (int c = 0; c < components; c++) {
+            condensedOffsets[c] = count;
+            cyclic[c] = memberOffsets[c + 1] - memberOffsets[c] > 1;
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int node = members[m];
+                for (int e = graph.getCalleeStart(node); e < graph.getCalleeEnd(node); e++) {
+                    int target = componentOf[graph.getCalleeAt(e)];
+                    if (target == c) {
+                        cyclic[c] = true;
+                    } else if (lastSeen[target] != c) {
+                        lastSeen[target] = c;
+                        targets[count++] = target;
+                    }
+                }
+            }
+        }
+        condensedOffsets[components] = count;
+        this.condensedTargets = Arrays.copyOf(targets, count);
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * 获取节点所属分量的编号
+     */
+    public int getComponent(int node) {
+        return componentOf[node];
+    }
+
+    /**
+     * 分量中的方法数
+     */
+    public int getSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    /**
+     * 分量是否包含循环调用：多个方法相互调用，或单个方法递归调用自身
+     */
+    public boolean isCyclic(int component) {
+        return cyclic[component];
+    }
+
+    /**
+     * 分量成员在成员数组中的起始位置（含）
+     */
+    public int getMemberStart(int component) {
+        return memberOffsets[component];
+    }
+
+    /**
+     * 分量成员在成员数组中的结束位置（不含）
+     */
+    public int getMemberEnd(int component) {
+        return memberOffsets[component + 1];
+    }
+
+    /**
+     * 获取成员数组中指定位置的节点编号
+     */
+    public int getMemberAt(int index) {
+        return members[index];
+    }
+
+    /**
+     * 分量在缩点图中出边的起始位置（含）
+     */
+    public int getCondensedCalleeStart(int component) {
+        return condensedOffsets[component];
+    }
+
+    /**
+     * 分量在缩点图中出边的结束位置（不含）
+     */
+    public int getCondensedCalleeEnd(int component) {
+        return condensedOffsets[component + 1];
+    }
+
+    /**
+     * 获取缩点图邻接数组中指定位置的被调用分量
+     */
+    public int getCondensedCalleeAt(int index) {
+        return condensedTargets[index];
+    }
+}
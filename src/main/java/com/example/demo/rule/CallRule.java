@@ -0,0 +1,23 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CompiledRuleSet;
+
+import java.util.List;
+
+/**
+ * 调用边规则
+ * 对调用图中的每条调用边检查一次，通过扩展点 com.example.demo.callRule 注册。
+ * 所有方法级规则执行完后才开始检查调用边；规则引擎会在多个线程中同时调用同一个实例，实现不能保存检查状态，
+ * 也不能修改传入的方法信息。方法的层次类型已按包名修正（见 {@link PackageLayers}）
+ */
+public interface CallRule {
+
+    /**
+     * 检查一条调用边
+     * @param ruleSet 当前加载的规则配置
+     * @param violations 发现的问题追加到该列表
+     */
+    void check(MethodInfo caller, MethodInfo callee, CompiledRuleSet ruleSet, List<RuleViolation> violations);
+}
@@ -0,0 +1,78 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CompiledRuleSet;
+
+import java.util.List;
+
+/**
+ * 层间依赖规范（基于云开发范式4层架构）
+ */
+public final class LayerDependencyRule implements CallRule {
+
+    @Override
+    public void check(MethodInfo caller, MethodInfo callee, CompiledRuleSet ruleSet, List<RuleViolation> violations) {
+        String callerLayer = caller.getLayerType();
+        String calleeLayer = callee.getLayerType();
+        String violationMessage = checkLayerDependency(callerLayer, calleeLayer);
+        if (violationMessage != null) {
+            violations.add(new RuleViolation(
+                "LAYER_VIOLATION",
+                violationMessage,
+                caller.getMethodSignature() + " -> " + callee.getMethodSignature(),
+                getLayerDependencyAdvice(callerLayer, calleeLayer),
+                "high"
+            ));
+        }
+    }
+    
+    /**
+     * 检查层间依赖是否合规
+     * 返回违规描述，null表示合规
+     */
+    private String checkLayerDependency(String callerLayer, String calleeLayer) {
+        // 云开发范式4层架构依赖规则：
+        // 1. 适配器层 -> 应用层
+        // 2. 应用层 -> 领域层
+        // 3. 基础设施层 -> 领域层
+        // 4. 所有层都可以依赖基础设施层的工具类和通用类
+        
+        if ("ADAPTER".equals(callerLayer)) {
+            if (!"APPLICATION".equals(calleeLayer) && !"INFRASTRUCTURE".equals(calleeLayer)) {
+                return "适配器层违规调用：适配器层只能调用应用层或基础设施层的工具类";
+            }
+        } else if ("APPLICATION".equals(callerLayer)) {
+            if (!"DOMAIN".equals(calleeLayer) && !"INFRASTRUCTURE".equals(calleeLayer)) {
+                return "应用层违规调用：应用层只能调用领域层或基础设施层";
+            }
+        } else if ("DOMAIN".equals(callerLayer)) {
+            if ("ADAPTER".equals(calleeLayer) || "APPLICATION".equals(calleeLayer)) {
+                return "领域层违规调用：领域层不能调用适配器层或应用层";
+            }
+        } else if ("INFRASTRUCTURE".equals(callerLayer)) {
+            if ("ADAPTER".equals(calleeLayer) || "APPLICATION".equals(calleeLayer)) {
+                return "基础设施层违规调用：基础设施层不能调用适配器层或应用层";
+            }
+        }
+        
+        return null; // 合规
+    }
+    
+    /**
+     * 获取层间依赖建议
+     */
+    private String getLayerDependencyAdvice(String callerLayer, String calleeLayer) {
+        if ("ADAPTER".equals(callerLayer)) {
+            return "适配器层应该调用应用层进行业务编排，通过应用层间接访问其他层";
+        } else if ("APPLICATION".equals(callerLayer)) {
+            return "应用层应该调用领域层处理核心业务逻辑，通过领域层的support接口访问基础设施层";
+        } else if ("DOMAIN".equals(callerLayer)) {
+            return "领域层应该通过support接口定义依赖，由基础设施层实现具体功能";
+        } else if ("INFRASTRUCTURE".equals(callerLayer)) {
+            return "基础设施层应该实现领域层定义的support接口，不应该主动调用上层";
+        }
+        
+        return "请遵循云开发范式的层间依赖规则";
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CompiledRuleSet;
+
+import java.util.List;
+
+/**
+ * 方法级规则
+ * 对调用链路中的每个方法检查一次，通过扩展点 com.example.demo.methodRule 注册。
+ * 规则引擎会在多个线程中同时对不同方法调用同一个实例，实现不能保存检查状态，也不能修改传入的方法信息
+ * （调用链路还会被缓存并用于AI分析）
+ */
+public interface MethodRule {
+
+    /**
+     * 检查单个方法
+     * @param ruleSet 当前加载的规则配置
+     * @param violations 发现的问题追加到该列表
+     */
+    void check(MethodInfo method, CompiledRuleSet ruleSet, List<RuleViolation> violations);
+}
@@ -0,0 +1,37 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CompiledRuleSet;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 命名规范
+ */
+public final class NamingRule implements MethodRule {
+
+    @Override
+    public void check(MethodInfo method, CompiledRuleSet ruleSet, List<RuleViolation> violations) {
+        Pattern methodPattern = ruleSet.getMethodNamingPattern();
+        if (methodPattern != null && !isConstructor(method) && !methodPattern.matcher(method.getMethodName()).matches()) {
+            violations.add(new RuleViolation(
+                "NAMING_VIOLATION",
+                "方法名不符合命名规范",
+                method.getMethodSignature(),
+                "方法名应该以小写字母开头，使用驼峰命名法",
+                "high"
+            ));
+        }
+    }
+
+    /**
+     * 构造方法与所属类同名，不适用方法命名规范
+     */
+    private boolean isConstructor(MethodInfo method) {
+        String className = method.getClassName();
+        if (className == null || method.getMethodName() == null) return false;
+        return method.getMethodName().equals(className.substring(className.lastIndexOf('.') + 1));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+
+/**
+ * 层次规范
+ * 根据包名确定规则检查使用的层次类型。不修改调用链路中的方法信息：
+ * 层次与包名不同时返回带有该层次的副本，链路本身（缓存、AI分析、传递性检查）仍使用推断的4层架构层次
+ */
+public final class PackageLayers {
+
+    private PackageLayers() {
+    }
+
+    /**
+     * 规则检查使用的方法信息
+     * @return 包名不决定层次时返回方法本身，否则返回层次按包名修正的副本
+     */
+    public static MethodInfo forRuleCheck(MethodInfo method) {
+        String layerType = layerOf(method.getPackageName());
+        if (layerType == null || layerType.equals(method.getLayerType())) {
+            return method;
+        }
+        MethodInfo view = new MethodInfo(method);
+        view.setLayerType(layerType);
+        return view;
+    }
+
+    private static String layerOf(String packageName) {
+        if (packageName == null) return null;
+        if (packageName.contains(".controller.")) {
+            return "CONTROLLER";
+        } else if (packageName.contains(".service.")) {
+            return "SERVICE";
+        } else if (packageName.contains(".dao.") || packageName.contains(".repository.")) {
+            return "DAO";
+        }
+        return null;
+    }
+}
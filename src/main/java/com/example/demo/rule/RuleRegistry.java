@@ -0,0 +1,57 @@
+package com.example.demo.rule;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.extensions.ExtensionPointName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 规则注册表
+ * 内置规则之后追加通过扩展点注册的规则；不在IntelliJ环境中运行时只有内置规则
+ */
+public final class RuleRegistry {
+
+    public static final ExtensionPointName<MethodRule> METHOD_RULE_EP =
+            ExtensionPointName.create("com.example.demo.methodRule");
+    public static final ExtensionPointName<CallRule> CALL_RULE_EP =
+            ExtensionPointName.create("com.example.demo.callRule");
+
+    private static final List<MethodRule> BUILT_IN_METHOD_RULES = Collections.unmodifiableList(Arrays.asList(
+            new NamingRule(), new SignatureRule()));
+    private static final List<CallRule> BUILT_IN_CALL_RULES = Collections.unmodifiableList(Arrays.asList(
+            new LayerDependencyRule()));
+
+    private RuleRegistry() {
+    }
+
+    /**
+     * 获取所有方法级规则
+     */
+    public static List<MethodRule> getMethodRules() {
+        return withExtensions(BUILT_IN_METHOD_RULES, METHOD_RULE_EP);
+    }
+
+    /**
+     * 获取所有调用边规则
+     */
+    public static List<CallRule> getCallRules() {
+        return withExtensions(BUILT_IN_CALL_RULES, CALL_RULE_EP);
+    }
+
+    private static <T> List<T> withExtensions(List<T> builtIn, ExtensionPointName<T> extensionPoint) {
+        try {
+            if (ApplicationManager.getApplication() == null) {
+                return builtIn;
+            }
+            List<T> rules = new ArrayList<>(builtIn);
+            rules.addAll(extensionPoint.getExtensionList());
+            return rules;
+        } catch (NoClassDefFoundError e) {
+            // 平台API不可用（如独立运行的测试），只使用内置规则
+            return builtIn;
+        }
+    }
+}
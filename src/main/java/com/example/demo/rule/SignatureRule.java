@@ -0,0 +1,28 @@
+package com.example.demo.rule;
+
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CompiledRuleSet;
+
+import java.util.List;
+
+/**
+ * 方法签名规范
+ */
+public final class SignatureRule implements MethodRule {
+
+    @Override
+    public void check(MethodInfo method, CompiledRuleSet ruleSet, List<RuleViolation> violations) {
+        int maxParams = ruleSet.getMaxParameters();
+        if (maxParams != CompiledRuleSet.NO_LIMIT && method.getParameters() != null &&
+            method.getParameters().size() > maxParams) {
+            violations.add(new RuleViolation(
+                "SIGNATURE_VIOLATION",
+                "方法参数过多",
+                method.getMethodSignature(),
+                "建议将参数封装为对象或拆分方法",
+                "medium"
+            ));
+        }
+    }
+}
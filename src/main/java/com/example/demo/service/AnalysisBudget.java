@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.util.ConfigManager;
+
+/**
+ * 调用链路分析预算
+ * 限制分析深度、访问的方法数和耗时，超出预算时停止分析并返回部分结果
+ */
+public class AnalysisBudget {
+
+    public static final int DEFAULT_MAX_DEPTH = 5;
+    public static final int DEFAULT_MAX_NODES = 2000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000;
+    public static final int DEFAULT_MAX_IMPLEMENTATIONS = 8;
+
+    private final int maxDepth;
+    private final int maxNodes;
+    private final long timeoutMillis;
+    private final int maxImplementations;
+
+    public AnalysisBudget(int maxDepth, int maxNodes, long timeoutMillis, int maxImplementations) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.timeoutMillis = timeoutMillis;
+        this.maxImplementations = maxImplementations;
+    }
+
+    /**
+     * 从配置读取预算：max.call.depth、max.call.nodes、check.timeout(毫秒)、
+     * max.implementations.per.call(每个接口方法最多跟随的实现数)
+     */
+    public static AnalysisBudget fromConfig() {
+        ConfigManager config = ConfigManager.getInstance();
+        return new AnalysisBudget(
+                parseInt(config.getProperty("max.call.depth"), DEFAULT_MAX_DEPTH),
+                parseInt(config.getProperty("max.call.nodes"), DEFAULT_MAX_NODES),
+                parseLong(config.getProperty("check.timeout"), DEFAULT_TIMEOUT_MILLIS),
+                parseInt(config.getProperty("max.implementations.per.call"), DEFAULT_MAX_IMPLEMENTATIONS));
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Integer.parseInt(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int getMaxImplementations() {
+        return maxImplementations;
+    }
+
+    /**
+     * 开始一次分析的预算计时
+     */
+    public Tracker start() {
+        return new Tracker();
+    }
+
+    /**
+     * 单次分析的预算使用情况
+     */
+    public class Tracker {
+        private final long deadline;
+        private int visitedNodes;
+        private String exhaustedReason;
+
+        private Tracker() {
+            this.deadline = System.currentTimeMillis() + timeoutMillis;
+        }
+
+        /**
+         * 读动作被打断重新执行时清空已访问计数，截止时间保持不变
+         */
+        public void reset() {
+            visitedNodes = 0;
+            exhaustedReason = null;
+        }
+
+        /**
+         * 记录访问一个方法
+         * @return 预算未耗尽时返回true
+         */
+        public boolean visit() {
+            if (isExhausted()) return false;
+            visitedNodes++;
+            return true;
+        }
+
+        /**
+         * 检查节点数和耗时预算是否已耗尽
+         */
+        public boolean isExhausted() {
+            if (exhaustedReason != null) return true;
+            if (visitedNodes >= maxNodes) {
+                exhaustedReason = "访问方法数超过上限(" + maxNodes + ")";
+            } else if (System.currentTimeMillis() > deadline) {
+                exhaustedReason = "分析耗时超过上限(" + timeoutMillis + "ms)";
+            }
+            return exhaustedReason != null;
+        }
+
+        /**
+         * 预算耗尽的原因，未耗尽时返回null
+         */
+        public String getExhaustedReason() {
+            return exhaustedReason;
+        }
+
+        public int getVisitedNodes() {
+            return visitedNodes;
+        }
+    }
+}
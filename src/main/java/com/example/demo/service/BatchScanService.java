@@ -0,0 +1,313 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.MethodId;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.util.ConfigManager;
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量扫描服务
+ * 查找项目/模块中所有适配器层入口方法，在有界线程池中并行分析，
+ * 各入口共享同一个调用子图备忘录，公共的下游方法只解析一次
+ */
+@Service(Service.Level.PROJECT)
+public final class BatchScanService {
+
+    private static final String[] CONTROLLER_ANNOTATIONS = {
+            "org.springframework.web.bind.annotation.RestController",
+            "org.springframework.stereotype.Controller"
+    };
+
+    private final Project project;
+
+    public BatchScanService(Project project) {
+        this.project = project;
+    }
+
+    public static BatchScanService getInstance(Project project) {
+        return project.getService(BatchScanService.class);
+    }
+
+    /**
+     * 查找范围内的所有适配器层入口方法
+     */
+    public List<EntryPoint> findEntryPoints(GlobalSearchScope scope) {
+        return ReadAction.nonBlocking(() -> collectEntryPoints(scope))
+                .inSmartMode(project)
+                .expireWith(project)
+                .executeSynchronously();
+    }
+
+    private List<EntryPoint> collectEntryPoints(GlobalSearchScope scope) {
+        Set<PsiClass> controllers = new LinkedHashSet<>();
+
+        // 1) 通过Spring控制器注解查找
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        for (String annotationName : CONTROLLER_ANNOTATIONS) {
+            PsiClass annotationClass = facade.findClass(annotationName, GlobalSearchScope.allScope(project));
+            if (annotationClass != null) {
+                controllers.addAll(AnnotatedElementsSearch.searchPsiClasses(annotationClass, scope).findAll());
+            }
+        }
+
+        // 2) 通过类名约定补充
+        PsiShortNamesCache shortNamesCache = PsiShortNamesCache.getInstance(project);
+        for (String className : shortNamesCache.getAllClassNames()) {
+            ProgressManager.checkCanceled();
+            if (className.endsWith("Controller")) {
+                for (PsiClass psiClass : shortNamesCache.getClassesByName(className, scope)) {
+                    controllers.add(psiClass);
+                }
+            }
+        }
+
+        return entryPointsOf(controllers);
+    }
+
+    /**
+     * 查找文件中的适配器层入口方法，用于保存时的检查
+     * @return 文件不是Java源文件或其中没有Controller类时返回空列表
+     */
+    public List<EntryPoint> findEntryPoints(VirtualFile file) {
+        return ReadAction.nonBlocking(() -> {
+                    PsiFile psiFile = file.isValid() ? PsiManager.getInstance(project).findFile(file) : null;
+                    if (!(psiFile instanceof PsiJavaFile)) {
+                        return List.<EntryPoint>of();
+                    }
+                    Set<PsiClass> controllers = new LinkedHashSet<>();
+                    for (PsiClass psiClass : ((PsiJavaFile) psiFile).getClasses()) {
+                        if (isController(psiClass)) {
+                            controllers.add(psiClass);
+                        }
+                    }
+                    return entryPointsOf(controllers);
+                })
+                .withDocumentsCommitted(project)
+                .inSmartMode(project)
+                .expireWith(project)
+                .executeSynchronously();
+    }
+
+    private boolean isController(PsiClass psiClass) {
+        String name = psiClass.getName();
+        if (name != null && name.endsWith("Controller")) {
+            return true;
+        }
+        for (String annotationName : CONTROLLER_ANNOTATIONS) {
+            if (psiClass.hasAnnotation(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<EntryPoint> entryPointsOf(Set<PsiClass> controllers) {
+        List<EntryPoint> entryPoints = new ArrayList<>();
+        Set<MethodId> seen = new HashSet<>();
+        for (PsiClass controller : controllers) {
+            String qualifiedName = controller.getQualifiedName();
+            if (qualifiedName == null || controller.isInterface()) continue;
+
+            List<PsiMethod> publicMethods = new ArrayList<>();
+            List<PsiMethod> mappedMethods = new ArrayList<>();
+            for (PsiMethod method : controller.getMethods()) {
+                if (method.isConstructor() || !method.hasModifierProperty(PsiModifier.PUBLIC)) continue;
+                publicMethods.add(method);
+                if (hasRequestMapping(method)) {
+                    mappedMethods.add(method);
+                }
+            }
+            // 有请求映射注解时只取映射方法，否则取所有公共方法
+            for (PsiMethod method : mappedMethods.isEmpty() ? publicMethods : mappedMethods) {
+                String parameterTypes = CallChainAnalyzer.erasedParameterTypes(method);
+                if (seen.add(MethodId.of(qualifiedName, method.getName(), parameterTypes))) {
+                    entryPoints.add(new EntryPoint(qualifiedName, method.getName(), parameterTypes));
+                }
+            }
+        }
+        return entryPoints;
+    }
+
+    private boolean hasRequestMapping(PsiMethod method) {
+        for (PsiAnnotation annotation : method.getAnnotations()) {
+            String qName = annotation.getQualifiedName();
+            if (qName != null && qName.endsWith("Mapping")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 并行分析所有入口方法并执行规则检查
+     * @param indicator 进度指示器，取消时停止所有未完成的分析
+     */
+    public List<ScanResult> scan(List<EntryPoint> entryPoints, ProgressIndicator indicator) {
+        int threads = getThreadCount();
+
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("CloudDevBatchScan", threads);
+        CallGraphMemo memo = new CallGraphMemo();
+        CallChainAnalyzer analyzer = CallChainAnalyzer.getInstance(project);
+        CloudDevelopmentRuleEngine ruleEngine = new CloudDevelopmentRuleEngine();
+        AtomicInteger completed = new AtomicInteger();
+
+        List<Future<ScanResult>> futures = new ArrayList<>();
+        for (EntryPoint entryPoint : entryPoints) {
+            futures.add(executor.submit(() -> ProgressManager.getInstance().runProcess(() -> {
+                MethodCallChain callChain = analyzer.analyzeCallChain(entryPoint.getMethodName(),
+                        entryPoint.getClassName(), entryPoint.getParameterTypes(), memo);
+                // 分析失败的入口没有可检查的链路，在报告中作为失败列出
+                List<RuleViolation> violations = callChain.isFailed()
+                        ? new ArrayList<>() : ruleEngine.checkCallChain(callChain);
+
+                int done = completed.incrementAndGet();
+                indicator.setText2(done + "/" + entryPoints.size() + " " + entryPoint);
+                indicator.setFraction((double) done / entryPoints.size());
+                return new ScanResult(entryPoint, callChain, violations);
+            }, new SensitiveProgressWrapper(indicator))));
+        }
+
+        List<ScanResult> results = new ArrayList<>();
+        try {
+            for (Future<ScanResult> future : futures) {
+                indicator.checkCanceled();
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof ProcessCanceledException) {
+                        throw (ProcessCanceledException) e.getCause();
+                    }
+                    // 单个入口分析失败不影响其他入口
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException(e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * 读取 batch.scan.threads，未配置或不是有效数字时取处理器数-1，至少为1
+     */
+    private static int getThreadCount() {
+        int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        String value = ConfigManager.getInstance().getProperty("batch.scan.threads");
+        try {
+            int threads = value != null && !value.trim().isEmpty() ? Integer.parseInt(value.trim()) : defaultThreads;
+            return Math.max(1, threads);
+        } catch (NumberFormatException e) {
+            return defaultThreads;
+        }
+    }
+
+    /**
+     * 快速检查单个入口方法：边分析边执行规则，发现指定数量的严重问题后立即停止分析
+     * 适用于只需判断"是否存在问题"的场景，保存文件时由 {@link SaveCheckListener} 调用
+     * @param maxHighSeverity 发现多少个严重问题后停止，0表示分析完整链路
+     */
+    public ScanResult quickCheck(EntryPoint entryPoint, int maxHighSeverity) {
+        CloudDevelopmentRuleEngine.StreamingCheck check =
+                new CloudDevelopmentRuleEngine().startStreamingCheck(maxHighSeverity);
+        MethodCallChain callChain = CallChainAnalyzer.getInstance(project).analyzeCallChain(
+                entryPoint.getMethodName(), entryPoint.getClassName(), entryPoint.getParameterTypes(),
+                new CallGraphMemo(), check);
+        return new ScanResult(entryPoint, callChain,
+                callChain.isFailed() ? new ArrayList<>() : check.getViolations());
+    }
+
+    /**
+     * 入口方法
+     */
+    public static final class EntryPoint {
+        private final String className;
+        private final String methodName;
+        private final String parameterTypes;
+
+        /**
+         * @param parameterTypes 擦除后的参数类型，用于区分重载方法
+         */
+        public EntryPoint(String className, String methodName, String parameterTypes) {
+            this.className = className;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String getParameterTypes() {
+            return parameterTypes;
+        }
+
+        @Override
+        public String toString() {
+            return className + "." + methodName + "(" + parameterTypes + ")";
+        }
+    }
+
+    /**
+     * 单个入口的扫描结果
+     */
+    public static final class ScanResult {
+        private final EntryPoint entryPoint;
+        private final MethodCallChain callChain;
+        private final List<RuleViolation> violations;
+
+        public ScanResult(EntryPoint entryPoint, MethodCallChain callChain, List<RuleViolation> violations) {
+            this.entryPoint = entryPoint;
+            this.callChain = callChain;
+            this.violations = violations;
+        }
+
+        public EntryPoint getEntryPoint() {
+            return entryPoint;
+        }
+
+        public MethodCallChain getCallChain() {
+            return callChain;
+        }
+
+        public List<RuleViolation> getViolations() {
+            return violations;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.service;
 
 import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.MethodId;
 import com.example.demo.model.RuleViolation;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -130,11 +131,20 @@ public class CacheService {
     
     /**
      * 生成方法缓存键
+     * @deprecated 重载方法会得到相同的键，请使用 {@link #generateMethodKey(MethodId)}
      */
+    @Deprecated
     public String generateMethodKey(String className, String methodName) {
         return className + "." + methodName;
     }
     
+    /**
+     * 生成方法缓存键，使用方法签名，能区分重载方法，且不随方法标识的编号变化
+     */
+    public String generateMethodKey(MethodId methodId) {
+        return methodId.getSignature();
+    }
+    
     /**
      * 检查是否有缓存
      */
@@ -1,33 +1,48 @@
 package com.example.demo.service;
 
 import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.MethodId;
 import com.example.demo.model.MethodInfo;
+import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.search.searches.MethodReferencesSearch;
-import com.intellij.psi.search.searches.OverridingMethodsSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.util.TypeConversionUtil;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * 方法调用链路分析器
  * 负责分析方法的调用关系和构建调用链路
- * 使用IntelliJ PSI API进行真实的代码分析
+ * 使用IntelliJ PSI API进行真实的代码分析。
+ * 作为项目服务使用：分析器本身不保存遍历状态，已访问标记和预算都属于单次分析，
+ * 编译后的包过滤器按配置缓存、只读共享，多个线程可以同时调用同一个实例
  */
-public class CallChainAnalyzer {
+@Service(Service.Level.PROJECT)
+public final class CallChainAnalyzer {
+    
+    /**
+     * 逐层加深分析期间代码被修改时最多重新开始的次数
+     */
+    private static final int MAX_ITERATIVE_RESTARTS = 2;
     
     private final Project project;
-    private final Set<String> analyzedMethods; // 防止循环调用
-    private final int maxDepth;
+    private final PackageFilter.Cache packageFilters = new PackageFilter.Cache();
     
     public CallChainAnalyzer(Project project) {
         this.project = project;
-        this.analyzedMethods = new HashSet<>();
-        this.maxDepth = 5; // 最大分析深度
     }
     
     /**
@@ -35,107 +50,305 @@ public class CallChainAnalyzer {
      */
     public CallChainAnalyzer() {
         this.project = null;
-        this.analyzedMethods = new HashSet<>();
-        this.maxDepth = 5;
+    }
+    
+    public static CallChainAnalyzer getInstance(Project project) {
+        return project.getService(CallChainAnalyzer.class);
     }
     
     /**
-     * 分析方法的调用链路
+     * 分析方法的调用链路，存在重载时分析第一个同名方法
      * @param methodName 目标方法名
      * @param className 类名
-     * @return 方法调用链路
+     * @return 方法调用链路；超出分析预算时返回标记为截断的部分链路
      */
     public MethodCallChain analyzeCallChain(String methodName, String className) {
-        MethodCallChain callChain = new MethodCallChain();
-        analyzedMethods.clear();
-        // 解析包过滤配置，自动推断项目根包
-        PackageFilter filter = PackageFilter.fromConfig(project, className);
-        
+        return analyzeCallChain(methodName, className, null);
+    }
+    
+    /**
+     * 分析方法的调用链路
+     * @param methodName 目标方法名
+     * @param className 类名
+     * @param parameterTypes 擦除后的参数类型（见 {@link #erasedParameterTypes(PsiMethod)}），用于区分重载方法；为null时取第一个同名方法
+     * @return 方法调用链路；超出分析预算时返回标记为截断的部分链路
+     */
+    public MethodCallChain analyzeCallChain(String methodName, String className, String parameterTypes) {
+        return analyzeCallChain(methodName, className, parameterTypes, new CallGraphMemo());
+    }
+    
+    /**
+     * 分析方法的调用链路，复用给定的调用子图备忘录
+     * @param memo 调用子图备忘录，批量分析时在多个并发分析之间共享
+     * @return 方法调用链路；超出分析预算时返回标记为截断的部分链路
+     */
+    public MethodCallChain analyzeCallChain(String methodName, String className, String parameterTypes,
+                                            CallGraphMemo memo) {
+        return analyzeCallChain(methodName, className, parameterTypes, memo, null);
+    }
+    
+    /**
+     * 分析方法的调用链路，每发现一条调用边即通知监听器
+     * @param memo 调用子图备忘录，批量分析时在多个并发分析之间共享
+     * @param listener 调用边监听器，可据此边分析边检查，并在返回false时提前结束分析；为null时不通知
+     * @return 方法调用链路；超出分析预算或被监听器停止时返回标记为截断的部分链路；
+     *         找不到方法或分析出错时返回标记为失败的空链路（见 {@link MethodCallChain#isFailed()}）
+     */
+    public MethodCallChain analyzeCallChain(String methodName, String className, String parameterTypes,
+                                            CallGraphMemo memo, CallChainListener listener) {
+        return analyzeCallChain(methodName, className, parameterTypes, memo, listener, false);
+    }
+    
+    /**
+     * 分析方法的调用链路，可选择是否向上查找入口方法
+     * @param findEntryRoots 为true时向上查找能到达该方法的所有入口（Controller）方法；
+     *                       向上查找需要逐层搜索调用方，批量扫描和快速检查的入口本身就是Controller方法，默认不查找
+     */
+    public MethodCallChain analyzeCallChain(String methodName, String className, String parameterTypes,
+                                            CallGraphMemo memo, CallChainListener listener, boolean findEntryRoots) {
         // 检查是否在IntelliJ环境中运行
         if (project == null) {
             // 不在IntelliJ环境中，使用模拟模式
-            MethodInfo rootMethod = createMethodInfo(methodName, className);
-            callChain.setRootMethod(rootMethod);
-            simulateMethodCalls(callChain, methodName, className, 0, 3);
+            return createSimulatedCallChain(methodName, className);
+        }
+        
+        // 每次分析读取最新的预算和遍历顺序配置；耗时预算从分析开始计算，读动作重新执行时不重新计时
+        AnalysisBudget budget = AnalysisBudget.fromConfig();
+        AnalysisBudget.Tracker budgetTracker = budget.start();
+        TraversalOrder order = TraversalOrder.fromConfig();
+        return runAnalysis(methodName, className, parameterTypes,
+                filter -> new Traversal(new MethodCallChain(), memo, budget, budgetTracker, filter, order,
+                        listener, budget.getMaxDepth(), null, findEntryRoots));
+    }
+    
+    /**
+     * 逐层加深分析方法的调用链路
+     * 依次以深度1、2、3……为上限分析，每完成一层即发布该深度的完整链路，调用方可以先展示浅层结果。
+     * 各轮共享调用子图备忘录和入口方法，加深一层时只需解析新展开的方法；
+     * 链路不再受深度上限限制、预算耗尽或达到max.call.depth时结束。每轮在单独的读动作中执行。
+     * 选中的方法不是Controller方法时，第一轮向上查找入口方法，之后各轮复用。
+     * 各轮之间代码被修改时，备忘录中的结果已过时，清空后从深度1重新开始；
+     * 重新开始次数超过上限时链路标记为截断
+     * @param onDepthCompleted 每完成一层回调一次，参数为该层的调用链路；在分析线程中调用
+     * @return 最后一轮的调用链路
+     */
+    public MethodCallChain analyzeCallChainIteratively(String methodName, String className, String parameterTypes,
+                                                       Consumer<MethodCallChain> onDepthCompleted) {
+        if (project == null) {
+            MethodCallChain callChain = createSimulatedCallChain(methodName, className);
+            onDepthCompleted.accept(callChain);
             return callChain;
         }
         
-        try {
-            // 在索引就绪(Smart Mode)下运行只读动作，避免线程/索引异常
-            DumbService.getInstance(project).runReadActionInSmartMode(() -> {
-                // 1) 定位目标方法
-                PsiMethod targetMethod = findMethodByName(className, methodName);
-                if (targetMethod != null) {
-                    // 2) 仅当选中的就是Controller方法时才使用Controller作为根
-                    boolean selectedIsController = isControllerMethod(targetMethod);
-                    PsiMethod rootForDownTraversal;
-                    if (selectedIsController) {
-                        PsiMethod controllerRoot = findControllerRoot(targetMethod, 8);
-                        rootForDownTraversal = controllerRoot != null ? controllerRoot : targetMethod;
-                    } else {
-                        // 选中的不是Controller（例如Service/DAO），以选中方法自身为根
-                        rootForDownTraversal = targetMethod;
-                    }
-
-                    // 3) 设置根并向下遍历构建全链路
-                    MethodInfo rootMethod = createMethodInfoFromPsi(rootForDownTraversal);
-                    callChain.setRootMethod(rootMethod);
-                    analyzeMethodCalls(rootForDownTraversal, callChain, 0, filter);
-                } else {
-                    // 如果找不到方法，使用模拟数据
-                    MethodInfo rootMethod = createMethodInfo(methodName, className);
-                    callChain.setRootMethod(rootMethod);
-                    simulateMethodCalls(callChain, methodName, className, 0, 3);
-                }
+        // 所有轮次共用一份耗时预算
+        AnalysisBudget budget = AnalysisBudget.fromConfig();
+        AnalysisBudget.Tracker budgetTracker = budget.start();
+        TraversalOrder order = TraversalOrder.fromConfig();
+        CallGraphMemo memo = new CallGraphMemo();
+        PsiModificationTracker modificationTracker = PsiModificationTracker.getInstance(project);
+        long modificationCount = modificationTracker.getModificationCount();
+        int restarts = 0;
+        MethodCallChain callChain = null;
+        for (int depth = 1; depth <= budget.getMaxDepth(); depth++) {
+            ProgressManager.checkCanceled();
+            int roundDepth = depth;
+            MethodCallChain previousRound = callChain;
+            AtomicReference<Traversal> round = new AtomicReference<>();
+            callChain = runAnalysis(methodName, className, parameterTypes, filter -> {
+                Traversal traversal = new Traversal(new MethodCallChain(), memo, budget, budgetTracker, filter,
+                        order, null, roundDepth, previousRound, true);
+                round.set(traversal);
+                return traversal;
             });
+            if (callChain.isFailed()) break;
+            long currentCount = modificationTracker.getModificationCount();
+            if (currentCount != modificationCount) {
+                // 本轮或之前的轮次之后代码被修改，各轮结果混合了新旧代码
+                modificationCount = currentCount;
+                memo.clear();
+                if (restarts++ < MAX_ITERATIVE_RESTARTS) {
+                    callChain = null;
+                    depth = 0;
+                    continue;
+                }
+                callChain.markTruncated("分析期间代码多次被修改，结果可能不一致");
+                onDepthCompleted.accept(callChain);
+                break;
+            }
+            onDepthCompleted.accept(callChain);
+            // 链路未受深度上限限制时，更深的轮次结果相同
+            Traversal finished = round.get();
+            if (finished == null || !finished.depthLimited || budgetTracker.isExhausted()) break;
+        }
+        return callChain;
+    }
+    
+    /**
+     * 在索引就绪(Smart Mode)下以非阻塞只读动作构建调用链路
+     * 分析出错时返回标记为失败的空链路，只有PSI API不可用（不在IDE中）时才回退到模拟模式
+     * @param newTraversal 按包过滤配置创建本次执行的遍历状态，读动作每次（重新）执行都会调用
+     */
+    private MethodCallChain runAnalysis(String methodName, String className, String parameterTypes,
+                                        Function<PackageFilter, Traversal> newTraversal) {
+        try {
+            // 遇到写操作时让出读锁，稍后从头重新执行
+            return ReadAction.nonBlocking(() -> buildCallChain(methodName, className, parameterTypes, newTraversal))
+                    .inSmartMode(project)
+                    .expireWith(project)
+                    .executeSynchronously();
+        } catch (ProcessCanceledException e) {
+            // 用户取消或项目关闭，交由进度框架处理
+            throw e;
         } catch (NoClassDefFoundError e) {
             // PSI API不可用，使用模拟模式
-            MethodInfo rootMethod = createMethodInfo(methodName, className);
-            callChain.setRootMethod(rootMethod);
-            simulateMethodCalls(callChain, methodName, className, 0, 3);
+            return createSimulatedCallChain(methodName, className);
         } catch (Exception e) {
-            // 其他异常，也回退到模拟模式
-            MethodInfo rootMethod = createMethodInfo(methodName, className);
-            callChain.setRootMethod(rootMethod);
-            simulateMethodCalls(callChain, methodName, className, 0, 3);
+            // 真实项目中分析出错时不能用模拟数据代替，否则会对真实方法报告虚构的问题
+            return failedCallChain("调用链路分析失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 在读动作中构建调用链路
+     * 读动作可能被写操作打断并重新执行，因此每次执行都从新的遍历状态开始
+     */
+    private MethodCallChain buildCallChain(String methodName, String className, String parameterTypes,
+                                           Function<PackageFilter, Traversal> newTraversal) {
+        // 按包过滤配置和推断出的项目根包取得编译好的过滤器
+        Traversal traversal = newTraversal.apply(packageFilters.get(project, className));
+        traversal.budgetTracker.reset();
+        MethodCallChain callChain = traversal.callChain;
+        
+        // 1) 定位目标方法
+        PsiMethod targetMethod = findMethodByName(className, methodName, parameterTypes);
+        if (targetMethod == null) {
+            return failedCallChain("未找到方法 " + className + "." + methodName
+                    + (parameterTypes != null ? "(" + parameterTypes + ")" : ""));
+        }
+        
+        // 2) 向上查找能到达选中方法的所有入口（Controller）方法；选中的就是Controller方法时它自身即为入口，
+        //    批量扫描和快速检查未要求时不查找
+        if (traversal.previousRound != null) {
+            // 逐层加深时入口方法与上一轮相同，不再重复向上查找
+            traversal.previousRound.getEntryRoots().forEach(callChain::addEntryRoot);
+            callChain.addSourceFiles(traversal.previousRound.getSourceFiles());
+            callChain.addCallerLookupNames(traversal.previousRound.getCallerLookupNames());
+            if (traversal.previousRound.isEntryRootsIncomplete()) {
+                callChain.markEntryRootsIncomplete(traversal.previousRound.getTruncationReason());
+            }
+        } else if (isControllerMethod(targetMethod)) {
+            // 选中的就是入口方法，无需向上查找
+            callChain.addSourceFile(sourceFileOf(targetMethod));
+            callChain.addEntryRoot(createMethodInfoFromPsi(targetMethod));
+        } else if (traversal.findEntryRoots) {
+            for (PsiMethod entryRoot : findEntryRoots(targetMethod, 8, traversal)) {
+                callChain.addEntryRoot(createMethodInfoFromPsi(entryRoot));
+            }
         }
+        // 以选中方法自身为根向下遍历（例如选中Service/DAO时只分析其下游）
+        PsiMethod rootForDownTraversal = targetMethod;
         
+        // 3) 设置根并向下遍历构建全链路
+        MethodInfo rootMethod = createMethodInfoFromPsi(rootForDownTraversal);
+        callChain.setRootMethod(rootMethod);
+        if (traversal.listener != null) {
+            traversal.listener.started(rootMethod);
+        }
+        if (traversal.order == TraversalOrder.BEST_FIRST) {
+            analyzeMethodCallsBestFirst(rootForDownTraversal, rootMethod, traversal);
+        } else {
+            analyzeMethodCalls(rootForDownTraversal, rootMethod, 0, traversal);
+        }
+        return callChain;
+    }
+    
+    /**
+     * 创建标记为失败的空调用链路
+     */
+    private static MethodCallChain failedCallChain(String reason) {
+        MethodCallChain callChain = new MethodCallChain();
+        callChain.markFailed(reason);
+        return callChain;
+    }
+    
+    /**
+     * 创建模拟的调用链路，只在不在IntelliJ环境中运行时使用
+     */
+    private MethodCallChain createSimulatedCallChain(String methodName, String className) {
+        // 配置了simulation.nodes时生成指定规模的合成调用图
+        SyntheticCallGraphGenerator generator = SyntheticCallGraphGenerator.fromConfig();
+        if (generator.getNodeCount() > 0) {
+            return generator.generate(methodName, className);
+        }
+        MethodCallChain callChain = new MethodCallChain();
+        MethodInfo rootMethod = createMethodInfo(methodName, className);
+        callChain.setRootMethod(rootMethod);
+        simulateMethodCalls(callChain, rootMethod, 0, 3);
         return callChain;
     }
 
     /**
-     * 向上溯源查找最接近的Controller方法作为根
-     * 限制最大向上深度，避免性能问题
+     * 向上溯源查找所有入口（Controller）方法，按距离由近到远排列
+     * 优先通过调用方反向索引查找调用方，索引不可用时回退到引用搜索；
+     * 到达入口方法后不再继续向上，限制最大向上深度和访问的方法数，避免性能问题
      */
-    private PsiMethod findControllerRoot(PsiMethod startMethod, int maxUpDepth) {
+    private List<PsiMethod> findEntryRoots(PsiMethod startMethod, int maxUpDepth, Traversal traversal) {
+        List<PsiMethod> entryRoots = new ArrayList<>();
         Set<PsiMethod> visited = new HashSet<>();
         Queue<PsiMethod> queue = new ArrayDeque<>();
         Queue<Integer> depths = new ArrayDeque<>();
         queue.add(startMethod);
         depths.add(0);
+        visited.add(startMethod);
+        CallGraphIndexService indexService = CallGraphIndexService.getInstance(project);
 
-        while (!queue.isEmpty()) {
+        while (!queue.isEmpty() && visited.size() <= traversal.budget.getMaxNodes()
+                && !traversal.budgetTracker.isExhausted()) {
+            ProgressManager.checkCanceled();
             PsiMethod current = queue.poll();
             int depth = depths.poll();
-            if (current == null || visited.contains(current)) continue;
-            visited.add(current);
+            // 向上路径上的文件修改后入口方法可能变化，同样作为链路的依赖
+            traversal.callChain.addSourceFile(sourceFileOf(current));
 
             if (isControllerMethod(current)) {
-                return current;
+                entryRoots.add(current);
+                continue;
             }
             if (depth >= maxUpDepth) continue;
+            traversal.callChain.addCallerLookupName(current.getName());
 
-            // 查找对当前方法的所有引用（即它的调用者）
-            for (PsiReference ref : MethodReferencesSearch.search(current, GlobalSearchScope.projectScope(project), true)) {
-                PsiElement element = ref.getElement();
-                PsiMethod caller = PsiTreeUtil.getParentOfType(element, PsiMethod.class);
-                if (caller != null && !visited.contains(caller)) {
+            for (PsiMethod caller : findCallers(current, indexService)) {
+                if (visited.add(caller)) {
                     queue.add(caller);
                     depths.add(depth + 1);
                 }
             }
         }
-        return null;
+        if (!queue.isEmpty()) {
+            // 预算耗尽或访问的方法数超过上限，仍有调用方未查找
+            String reason = traversal.budgetTracker.isExhausted() ? traversal.budgetTracker.getExhaustedReason()
+                    : "向上查找的方法数超过上限(" + traversal.budget.getMaxNodes() + ")";
+            traversal.callChain.markEntryRootsIncomplete("入口方法查找提前停止：" + reason);
+        }
+        return entryRoots;
+    }
+
+    /**
+     * 查找直接调用该方法的方法
+     */
+    private List<PsiMethod> findCallers(PsiMethod method, CallGraphIndexService indexService) {
+        List<PsiMethod> callers = indexService.getCallers(method);
+        if (callers != null) return callers;
+
+        // 查找对当前方法的所有引用（即它的调用者）
+        Set<PsiMethod> referencingMethods = new LinkedHashSet<>();
+        for (PsiReference ref : MethodReferencesSearch.search(method, GlobalSearchScope.projectScope(project), true)) {
+            PsiMethod caller = PsiTreeUtil.getParentOfType(ref.getElement(), PsiMethod.class);
+            if (caller != null) {
+                referencingMethods.add(caller);
+            }
+        }
+        return new ArrayList<>(referencingMethods);
     }
 
     /**
@@ -168,19 +381,26 @@ public class CallChainAnalyzer {
     }
     
     /**
-     * 根据类名和方法名查找PSI方法
+     * 根据类名、方法名和参数类型查找PSI方法
+     * @param parameterTypes 擦除后的参数类型；为null时取第一个同名方法
      */
-    private PsiMethod findMethodByName(String className, String methodName) {
+    private PsiMethod findMethodByName(String className, String methodName, String parameterTypes) {
         try {
-            return ApplicationManager.getApplication().runReadAction((com.intellij.openapi.util.Computable<PsiMethod>) () -> {
-                PsiClass psiClass = JavaPsiFacade.getInstance(project)
-                        .findClass(className, GlobalSearchScope.allScope(project));
-                if (psiClass != null) {
-                    PsiMethod[] methods = psiClass.findMethodsByName(methodName, false);
-                    return methods.length > 0 ? methods[0] : null;
+            PsiClass psiClass = JavaPsiFacade.getInstance(project)
+                    .findClass(className, GlobalSearchScope.allScope(project));
+            if (psiClass != null) {
+                PsiMethod[] methods = psiClass.findMethodsByName(methodName, false);
+                if (parameterTypes != null) {
+                    for (PsiMethod method : methods) {
+                        if (parameterTypes.equals(erasedParameterTypes(method))) {
+                            return method;
+                        }
+                    }
                 }
-                return null;
-            });
+                return methods.length > 0 ? methods[0] : null;
+            }
+        } catch (ProcessCanceledException e) {
+            throw e;
         } catch (Exception e) {
             // 查找失败，返回null
         }
@@ -189,37 +409,67 @@ public class CallChainAnalyzer {
     
     /**
      * 从PSI方法创建MethodInfo
+     * 描述信息按方法缓存。擦除后的参数类型和推断的层次还要解析其他文件中的类型（如参数类型类被重命名或移动），
+     * 因此任一PSI修改后重新计算；返回副本，避免调用方修改影响缓存
      */
     private MethodInfo createMethodInfoFromPsi(PsiMethod psiMethod) {
-        return ApplicationManager.getApplication().runReadAction((com.intellij.openapi.util.Computable<MethodInfo>) () -> {
-            MethodInfo methodInfo = new MethodInfo();
-            methodInfo.setMethodName(psiMethod.getName());
-            methodInfo.setClassName(psiMethod.getContainingClass().getQualifiedName());
-            // 获取包名
-            PsiPackage psiPackage = JavaPsiFacade.getInstance(project).findPackage(psiMethod.getContainingClass().getQualifiedName());
+        MethodInfo cached = CachedValuesManager.getManager(project).getCachedValue(psiMethod, () ->
+                CachedValueProvider.Result.create(describeMethod(psiMethod), PsiModificationTracker.MODIFICATION_COUNT));
+        // 先在缓存实例上驻留方法标识，副本直接共享，不必每次重新查找
+        cached.getMethodId();
+        return new MethodInfo(cached);
+    }
+    
+    /**
+     * 计算方法的描述信息
+     */
+    private MethodInfo describeMethod(PsiMethod psiMethod) {
+        MethodInfo methodInfo = new MethodInfo();
+        PsiClass containingClass = psiMethod.getContainingClass();
+        methodInfo.setMethodName(psiMethod.getName());
+        methodInfo.setClassName(containingClass.getQualifiedName());
+        // 获取包名
+        if (containingClass.getQualifiedName() != null) {
+            PsiPackage psiPackage = JavaPsiFacade.getInstance(project).findPackage(containingClass.getQualifiedName());
             if (psiPackage != null) {
                 methodInfo.setPackageName(psiPackage.getQualifiedName());
             }
-            methodInfo.setReturnType(psiMethod.getReturnType().getPresentableText());
-            
-            // 获取参数列表
-            List<String> parameters = new ArrayList<>();
-            for (PsiParameter param : psiMethod.getParameterList().getParameters()) {
-                parameters.add(param.getType().getPresentableText() + " " + param.getName());
-            }
-            methodInfo.setParameters(parameters);
-            
-            // 获取注解
-            List<String> annotations = new ArrayList<>();
-            for (PsiAnnotation annotation : psiMethod.getAnnotations()) {
-                annotations.add("@" + annotation.getQualifiedName());
-            }
-            methodInfo.setAnnotations(annotations);
-            
-            // 推断层次类型
-            methodInfo.setLayerType(inferLayerType(psiMethod));
-            return methodInfo;
-        });
+        }
+        // 构造方法没有返回类型，以所属类作为返回类型
+        PsiType returnType = psiMethod.getReturnType();
+        methodInfo.setReturnType(returnType != null ? returnType.getPresentableText() : containingClass.getName());
+        
+        // 获取参数列表
+        List<String> parameters = new ArrayList<>();
+        for (PsiParameter param : psiMethod.getParameterList().getParameters()) {
+            parameters.add(param.getType().getPresentableText() + " " + param.getName());
+        }
+        methodInfo.setParameters(parameters);
+        methodInfo.setErasedParameterTypes(erasedParameterTypes(psiMethod));
+        
+        // 获取注解
+        List<String> annotations = new ArrayList<>();
+        for (PsiAnnotation annotation : psiMethod.getAnnotations()) {
+            annotations.add("@" + annotation.getQualifiedName());
+        }
+        methodInfo.setAnnotations(annotations);
+        
+        // 推断层次类型
+        methodInfo.setLayerType(inferLayerType(psiMethod));
+        return methodInfo;
+    }
+    
+    /**
+     * 获取擦除泛型后的参数类型，以逗号分隔，如 "java.lang.String,int"
+     * 需要在读动作中调用
+     */
+    public static String erasedParameterTypes(PsiMethod method) {
+        StringBuilder types = new StringBuilder();
+        for (PsiParameter parameter : method.getParameterList().getParameters()) {
+            if (types.length() > 0) types.append(',');
+            types.append(TypeConversionUtil.erasure(parameter.getType()).getCanonicalText());
+        }
+        return types.toString();
     }
     
     /**
@@ -272,188 +522,190 @@ public class CallChainAnalyzer {
     }
     
     /**
-     * 递归分析方法调用
+     * 递归分析方法调用（深度优先，按源码顺序）
+     * 在非阻塞读动作中执行，每个节点都检查取消状态以便及时让出读锁
+     * 超出深度、方法数或耗时预算时停止向下展开，并将链路标记为截断
+     * @param methodInfo 调用图中代表该方法的节点，其调用的方法以它为调用方记录
      */
-    private void analyzeMethodCalls(PsiMethod method, MethodCallChain callChain, int depth, PackageFilter filter) {
-        if (depth >= maxDepth) return;
-        ApplicationManager.getApplication().runReadAction(() -> {
-            PsiClass owner = method.getContainingClass();
-            String methodKey = (owner != null ? owner.getQualifiedName() : "?") + "." + method.getName();
-            if (analyzedMethods.contains(methodKey)) return;
-            analyzedMethods.add(methodKey);
-
-            PsiCodeBlock methodBody = method.getBody();
-            if (methodBody != null) {
-                analyzeMethodCallsInBlock(methodBody, callChain, depth, filter);
-            } else {
-                // 接口/抽象方法：查找实现/覆盖的方法继续向下
-                for (PsiMethod impl : OverridingMethodsSearch.search(method, true).findAll()) {
-                    analyzeMethodCalls(impl, callChain, depth, filter);
-                }
+    private void analyzeMethodCalls(PsiMethod method, MethodInfo methodInfo, int depth, Traversal traversal) {
+        for (CallGraphMemo.Callee callee : expandMethod(method, methodInfo, depth, traversal)) {
+            MethodInfo calledMethodInfo = callee.getInfo();
+            if (!recordCall(methodInfo, calledMethodInfo, depth + 1, traversal)) return;
+            analyzeMethodCalls(callee.getMethod(), calledMethodInfo, depth + 1, traversal);
+        }
+    }
+    
+    /**
+     * 优先级驱动的方法调用分析（最佳优先）
+     * 展开一个方法时立即记录它的全部调用边，再按 {@link EdgePriority} 评分决定下一个展开的方法，
+     * 预算耗尽时已展开的都是最可能违反分层规范的调用
+     */
+    private void analyzeMethodCallsBestFirst(PsiMethod root, MethodInfo rootInfo, Traversal traversal) {
+        PriorityQueue<PendingCall> queue = new PriorityQueue<>();
+        enqueueCallees(rootInfo, expandMethod(root, rootInfo, 0, traversal), 0, queue, traversal);
+        while (!queue.isEmpty() && !traversal.stopped) {
+            PendingCall next = queue.poll();
+            List<CallGraphMemo.Callee> callees = expandMethod(next.method, next.methodInfo, next.depth, traversal);
+            String exhaustedReason = traversal.budgetTracker.getExhaustedReason();
+            if (exhaustedReason != null) {
+                // 剩余的都是评分较低的调用，不再逐个出队
+                traversal.callChain.markTruncated(exhaustedReason);
+                break;
             }
-        });
+            enqueueCallees(next.methodInfo, callees, next.depth, queue, traversal);
+        }
     }
     
     /**
-     * 分析代码块中的方法调用
+     * 记录调用方到各被调用方法的边，尚未展开的被调用方法按评分加入待展开队列
      */
-    private void analyzeMethodCallsInBlock(PsiCodeBlock block, MethodCallChain callChain, int depth, PackageFilter filter) {
-        ApplicationManager.getApplication().runReadAction(() -> {
-            Collection<PsiMethodCallExpression> methodCalls =
-                    PsiTreeUtil.collectElementsOfType(block, PsiMethodCallExpression.class);
-            for (PsiMethodCallExpression methodCall : methodCalls) {
-                PsiMethod calledMethod = methodCall.resolveMethod();
-                if (calledMethod != null && calledMethod.getContainingClass() != null) {
-                    MethodInfo calledMethodInfo = createMethodInfoFromPsi(calledMethod);
-                    if (filter == null || filter.keep(calledMethodInfo.getClassName())) {
-                        callChain.addMethodCall(calledMethodInfo, depth + 1);
-                        analyzeMethodCalls(calledMethod, callChain, depth + 1, filter);
-                    }
-                }
+    private void enqueueCallees(MethodInfo callerInfo, List<CallGraphMemo.Callee> callees, int depth,
+                                PriorityQueue<PendingCall> queue, Traversal traversal) {
+        for (CallGraphMemo.Callee callee : callees) {
+            MethodInfo calledMethodInfo = callee.getInfo();
+            if (!recordCall(callerInfo, calledMethodInfo, depth + 1, traversal)) return;
+            if (!traversal.analyzedMethods.contains(calledMethodInfo.getMethodId())) {
+                queue.add(new PendingCall(callee.getMethod(), calledMethodInfo, depth + 1,
+                        EdgePriority.score(callerInfo, calledMethodInfo), traversal.nextSequence++));
             }
-        });
+        }
     }
-
+    
     /**
-     * 包过滤器：仅保留用户自定义包，排除JDK和第三方
+     * 在链路中记录一条调用边并通知监听器
+     * @return 监听器要求停止分析时返回false，此后不再展开任何方法
      */
-    private static class PackageFilter {
-        private final List<String> includes;
-        private final List<String> excludes;
-
-        private PackageFilter(List<String> includes, List<String> excludes) {
-            this.includes = includes;
-            this.excludes = excludes;
+    private boolean recordCall(MethodInfo callerInfo, MethodInfo calleeInfo, int depth, Traversal traversal) {
+        if (traversal.stopped) return false;
+        traversal.callChain.addMethodCall(callerInfo, calleeInfo, depth);
+        if (traversal.listener != null && !traversal.listener.callFound(callerInfo, calleeInfo)) {
+            traversal.stopped = true;
+            traversal.callChain.markTruncated(traversal.listener.getStopReason());
         }
-
-        static PackageFilter fromConfig(Project project, String targetClassName) {
-            com.example.demo.util.ConfigManager cfg = com.example.demo.util.ConfigManager.getInstance();
-            String inc = cfg.getProperty("analyze.include.packages", "");
-            String exc = cfg.getProperty("analyze.exclude.packages", "java.,javax.,jakarta.,jdk.,sun.,kotlin.,org.springframework.,org.jetbrains.,com.intellij.,com.fasterxml.,com.google.,org.apache.,org.slf4j.,ch.qos.logback.,org.hibernate.,org.mybatis.,org.junit.,org.testng.");
-            
-            List<String> includes = toList(inc);
-            List<String> excludes = toList(exc);
-            
-            // 如果没有配置include包，自动推断项目根包
-            if (includes.isEmpty()) {
-                String rootPackage = inferProjectRootPackage(project, targetClassName);
-                if (rootPackage != null && !rootPackage.isEmpty()) {
-                    includes.add(rootPackage + ".");
-                }
+        return !traversal.stopped;
+    }
+    
+    /**
+     * 展开一个方法：检查访问标记、深度和预算，记录依赖的源文件
+     * @return 该方法经过包过滤的被调用方法；已展开过、超出深度或预算、或分析已停止时返回空列表
+     */
+    private List<CallGraphMemo.Callee> expandMethod(PsiMethod method, MethodInfo methodInfo, int depth,
+                                                    Traversal traversal) {
+        ProgressManager.checkCanceled();
+        if (traversal.stopped) return Collections.emptyList();
+        MethodCallChain callChain = traversal.callChain;
+        AnalysisBudget.Tracker budgetTracker = traversal.budgetTracker;
+        int maxDepth = traversal.maxDepth;
+        int maxImplementations = traversal.budget.getMaxImplementations();
+        // 链路中的每个方法节点都依赖其所在文件
+        callChain.addSourceFile(sourceFileOf(method));
+        MethodId methodId = methodInfo.getMethodId();
+        if (traversal.analyzedMethods.contains(methodId)) return Collections.emptyList();
+        if (depth >= maxDepth) {
+            if (!traversal.depthLimited && !budgetTracker.isExhausted() && !getCallees(method, traversal).isEmpty()) {
+                traversal.depthLimited = true;
+                callChain.markTruncated("调用深度超过上限(" + maxDepth + ")");
             }
-            
-            return new PackageFilter(includes, excludes);
+            return Collections.emptyList();
         }
-        
-        /**
-         * 自动推断项目根包名
-         */
-        private static String inferProjectRootPackage(Project project, String targetClassName) {
-            if (project == null || targetClassName == null) return null;
-            
-            // 方法1: 从目标类名推断
-            if (targetClassName.contains(".")) {
-                String[] parts = targetClassName.split("\\.");
-                if (parts.length >= 3) {
-                    // 通常项目根包是前2-3段，如 com.easysplit 或 com.company.project
-                    if (parts.length >= 3 && isCommonTopDomain(parts[0])) {
-                        return parts[0] + "." + parts[1]; // com.easysplit
-                    }
-                }
-            }
-            
-            // 方法2: 扫描项目中的常见包结构
-            try {
-                return ApplicationManager.getApplication().runReadAction((com.intellij.openapi.util.Computable<String>) () -> {
-                    return scanProjectForRootPackage(project);
-                });
-            } catch (Exception e) {
-                // 扫描失败，返回null
-            }
-            
-            return null;
+        if (!budgetTracker.visit()) {
+            callChain.markTruncated(budgetTracker.getExhaustedReason());
+            return Collections.emptyList();
         }
-        
-        /**
-         * 判断是否是常见的顶级域名
-         */
-        private static boolean isCommonTopDomain(String domain) {
-            return domain.equals("com") || domain.equals("org") || domain.equals("net") || 
-                   domain.equals("cn") || domain.equals("io") || domain.equals("cc");
+        traversal.analyzedMethods.add(methodId);
+
+        List<CallGraphMemo.Callee> callees = getCallees(method, traversal);
+        // 展开的方法还依赖其实现所在的文件
+        callChain.addSourceFiles(traversal.memo.getSourceFiles(method));
+        if (method.getBody() == null && ImplementationResolver.getInstance(project).getImplementations(method).size()
+                > maxImplementations) {
+            callChain.markTruncated("接口方法实现数超过上限(" + maxImplementations + ")");
         }
-        
-        /**
-         * 扫描项目寻找根包
-         */
-        private static String scanProjectForRootPackage(Project project) {
-            try {
-                // 查找项目中的Controller类，通常能代表项目包结构
-                GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-                PsiClass[] controllers = JavaPsiFacade.getInstance(project)
-                    .findClasses("*Controller", scope);
-                
-                if (controllers.length > 0) {
-                    String qualifiedName = controllers[0].getQualifiedName();
-                    if (qualifiedName != null && qualifiedName.contains(".")) {
-                        String[] parts = qualifiedName.split("\\.");
-                        if (parts.length >= 3 && isCommonTopDomain(parts[0])) {
-                            return parts[0] + "." + parts[1]; // com.easysplit
-                        }
-                    }
-                }
-                
-                // 如果没找到Controller，查找Service类
-                PsiClass[] services = JavaPsiFacade.getInstance(project)
-                    .findClasses("*Service", scope);
-                
-                if (services.length > 0) {
-                    String qualifiedName = services[0].getQualifiedName();
-                    if (qualifiedName != null && qualifiedName.contains(".")) {
-                        String[] parts = qualifiedName.split("\\.");
-                        if (parts.length >= 3 && isCommonTopDomain(parts[0])) {
-                            return parts[0] + "." + parts[1];
-                        }
-                    }
-                }
-                
-            } catch (Exception e) {
-                // 扫描失败
+        return callees;
+    }
+    
+    /**
+     * 获取方法经过包过滤后的直接被调用方法
+     * 接口/抽象方法返回其实现（最多max.implementations.per.call个）中的调用，即实现中的调用记在接口方法名下
+     */
+    private List<CallGraphMemo.Callee> getCallees(PsiMethod method, Traversal traversal) {
+        List<CallGraphMemo.Callee> callees = getAllCallees(method, traversal);
+        PackageFilter filter = traversal.filter;
+        if (filter == null) return callees;
+        List<CallGraphMemo.Callee> kept = new ArrayList<>(callees.size());
+        for (CallGraphMemo.Callee callee : callees) {
+            if (filter.keep(callee.getClassName())) {
+                kept.add(callee);
             }
-            
-            return null;
         }
-
-        private static List<String> toList(String csv) {
-            List<String> list = new ArrayList<>();
-            if (csv != null && !csv.trim().isEmpty()) {
-                for (String p : csv.split(",")) {
-                    String s = p.trim();
-                    if (!s.isEmpty()) list.add(s);
-                }
-            }
-            return list;
+        return kept;
+    }
+    
+    /**
+     * 获取方法未经包过滤的直接被调用方法，结果记录在备忘录中供后续复用
+     * 备忘录与包过滤无关，包过滤配置不同的分析（如批量扫描中根包不同的入口）也可以共享
+     */
+    private List<CallGraphMemo.Callee> getAllCallees(PsiMethod method, Traversal traversal) {
+        CallGraphMemo memo = traversal.memo;
+        AnalysisBudget.Tracker budgetTracker = traversal.budgetTracker;
+        List<CallGraphMemo.Callee> cached = memo.get(method);
+        if (cached != null) return cached;
+        
+        List<CallGraphMemo.Callee> callees = new ArrayList<>();
+        Set<String> sourceFiles = new LinkedHashSet<>();
+        String methodFile = sourceFileOf(method);
+        if (methodFile != null) {
+            sourceFiles.add(methodFile);
         }
-
-        boolean keep(String qualifiedClassName) {
-            if (qualifiedClassName == null) return false;
-            // 先排除
-            for (String ex : excludes) {
-                if (!ex.isEmpty() && qualifiedClassName.startsWith(ex)) return false;
+        PsiCodeBlock methodBody = method.getBody();
+        if (methodBody != null) {
+            // 优先从调用点索引读取邻接关系，索引不可用时回退到遍历方法体
+            List<PsiMethod> calledMethods = CallGraphIndexService.getInstance(project).getCallees(method);
+            if (calledMethods == null) {
+                calledMethods = CallTargetCollector.collect(methodBody, budgetTracker::isExhausted);
+                if (budgetTracker.isExhausted()) {
+                    // 预算耗尽时提前结束了遍历，不完整的结果不记入备忘录
+                    return toCallees(calledMethods);
+                }
             }
-            // 再包含：若未配置includes，则自动通过；若配置了，则必须命中
-            if (includes.isEmpty()) return true;
-            for (String in : includes) {
-                if (!in.isEmpty() && qualifiedClassName.startsWith(in)) return true;
+            callees.addAll(toCallees(calledMethods));
+        } else {
+            // 接口/抽象方法：沿缓存的实现列表继续向下，最多跟随配置数量的实现
+            List<PsiMethod> implementations = ImplementationResolver.getInstance(project).getImplementations(method);
+            int followed = Math.min(implementations.size(), traversal.budget.getMaxImplementations());
+            for (PsiMethod impl : implementations.subList(0, followed)) {
+                callees.addAll(getAllCallees(impl, traversal));
+                sourceFiles.addAll(memo.getSourceFiles(impl));
             }
-            return false;
         }
+        memo.put(method, callees, sourceFiles);
+        return callees;
     }
     
+    /**
+     * 获取方法所在源文件的URL，库中的类或内存中的文件返回null
+     */
+    private String sourceFileOf(PsiMethod method) {
+        PsiFile file = method.getContainingFile();
+        VirtualFile virtualFile = file != null ? file.getVirtualFile() : null;
+        return virtualFile != null ? virtualFile.getUrl() : null;
+    }
+    
+    /**
+     * 为被调用方法创建描述信息
+     */
+    private List<CallGraphMemo.Callee> toCallees(List<PsiMethod> calledMethods) {
+        List<CallGraphMemo.Callee> callees = new ArrayList<>();
+        for (PsiMethod calledMethod : calledMethods) {
+            callees.add(new CallGraphMemo.Callee(calledMethod, createMethodInfoFromPsi(calledMethod)));
+        }
+        return callees;
+    }
+
     /**
      * 模拟方法调用分析
      */
-    private void simulateMethodCalls(MethodCallChain callChain, String methodName, 
-                                   String className, int depth, int maxDepth) {
+    private void simulateMethodCalls(MethodCallChain callChain, MethodInfo caller, int depth, int maxDepth) {
         if (depth >= maxDepth) {
             return;
         }
@@ -462,15 +714,15 @@ public class CallChainAnalyzer {
         if (depth < 2) {
             // 模拟数据库调用
             MethodInfo dbMethod = createMethodInfo("findById", "UserRepository");
-            callChain.addMethodCall(dbMethod, depth + 1);
+            callChain.addMethodCall(caller, dbMethod, depth + 1);
             
             // 模拟服务调用
             MethodInfo serviceMethod = createMethodInfo("validateUser", "ValidationService");
-            callChain.addMethodCall(serviceMethod, depth + 1);
+            callChain.addMethodCall(caller, serviceMethod, depth + 1);
             
             // 递归调用
-            simulateMethodCalls(callChain, "findById", "UserRepository", depth + 1, maxDepth);
-            simulateMethodCalls(callChain, "validateUser", "ValidationService", depth + 1, maxDepth);
+            simulateMethodCalls(callChain, dbMethod, depth + 1, maxDepth);
+            simulateMethodCalls(callChain, serviceMethod, depth + 1, maxDepth);
         }
     }
     
@@ -508,4 +760,68 @@ public class CallChainAnalyzer {
         
         return methodInfo;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 单次分析的遍历状态
+     * 每次执行读动作时新建，只在执行分析的线程内使用，不在并发分析之间共享
+     */
+    private static final class Traversal {
+        final MethodCallChain callChain;
+        final Set<MethodId> analyzedMethods = new HashSet<>(); // 已展开的方法，防止循环调用；大小只与本次链路有关
+        final CallGraphMemo memo;
+        final AnalysisBudget budget;
+        final AnalysisBudget.Tracker budgetTracker;
+        final PackageFilter filter;
+        final TraversalOrder order;
+        final CallChainListener listener;
+        final int maxDepth;
+        final MethodCallChain previousRound; // 逐层加深时的上一轮链路，复用其入口方法
+        final boolean findEntryRoots; // 是否向上查找入口方法
+        int nextSequence; // 最佳优先遍历中同分调用边按发现顺序展开
+        boolean stopped; // 监听器要求停止分析
+        boolean depthLimited; // 有方法因深度上限未展开
+
+        Traversal(MethodCallChain callChain, CallGraphMemo memo, AnalysisBudget budget,
+                  AnalysisBudget.Tracker budgetTracker, PackageFilter filter, TraversalOrder order,
+                  CallChainListener listener, int maxDepth, MethodCallChain previousRound,
+                  boolean findEntryRoots) {
+            this.callChain = callChain;
+            this.memo = memo;
+            this.budget = budget;
+            this.budgetTracker = budgetTracker;
+            this.filter = filter;
+            this.order = order;
+            this.listener = listener;
+            this.maxDepth = maxDepth;
+            this.previousRound = previousRound;
+            this.findEntryRoots = findEntryRoots;
+        }
+    }
+    
+    /**
+     * 最佳优先遍历中待展开的被调用方法
+     * 评分高的先展开，同分时浅层优先，再按发现顺序
+     */
+    private static final class PendingCall implements Comparable<PendingCall> {
+        final PsiMethod method;
+        final MethodInfo methodInfo;
+        final int depth;
+        final int score;
+        final int sequence;
+
+        PendingCall(PsiMethod method, MethodInfo methodInfo, int depth, int score, int sequence) {
+            this.method = method;
+            this.methodInfo = methodInfo;
+            this.depth = depth;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PendingCall other) {
+            if (score != other.score) return Integer.compare(other.score, score);
+            if (depth != other.depth) return Integer.compare(depth, other.depth);
+            return Integer.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demo.service;
+
+import com.example.demo.index.CallSiteVisitor;
+import com.example.demo.model.MethodCallChain;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.PsiReferenceList;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 调用链路依赖跟踪器
+ * 记录每条已缓存链路分析时读取过的源文件，监听PSI修改事件，
+ * 只让依赖被修改文件的链路缓存失效，其余链路继续复用。
+ * 新增、删除或移动文件、类、方法以及修改继承关系会改变实现类分派和入口方法，这类结构变化让所有链路失效；
+ * 新增对向上查找过调用方的方法的调用时，让对应的链路失效
+ */
+@Service(Service.Level.PROJECT)
+public final class CallChainDependencyTracker implements Disposable {
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends PsiElement>[] CALL_SITE_TYPES = new Class[]{
+            PsiMethodCallExpression.class, PsiNewExpression.class, PsiMethodReferenceExpression.class};
+
+    private final Project project;
+    private final Map<String, Set<String>> chainsByFile = new HashMap<>();
+    private final Map<String, Set<String>> filesByChain = new HashMap<>();
+    private final Map<String, Set<String>> chainsByCallerLookupName = new HashMap<>();
+    private final Map<String, Set<String>> callerLookupNamesByChain = new HashMap<>();
+
+    public CallChainDependencyTracker(Project project) {
+        this.project = project;
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                onChildChanged(event, event.getChild());
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                onChildChanged(event, event.getChild());
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                onChildChanged(event, event.getOldChild(), event.getNewChild());
+            }
+
+            @Override
+            public void childMoved(@NotNull PsiTreeChangeEvent event) {
+                onChildChanged(event, event.getChild());
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                onPsiChanged(event);
+            }
+
+            @Override
+            public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+                onPsiChanged(event);
+            }
+        }, this);
+    }
+
+    public static CallChainDependencyTracker getInstance(Project project) {
+        return project.getService(CallChainDependencyTracker.class);
+    }
+
+    /**
+     * 当前PSI修改计数，在开始分析前获取，登记链路时用于判断分析期间是否有修改
+     */
+    public long getModificationStamp() {
+        return PsiModificationTracker.getInstance(project).getModificationCount();
+    }
+
+    /**
+     * 登记链路依赖的源文件和向上查找过调用方的方法名
+     * 分析期间PSI已被修改时不登记，该链路可能基于旧代码，不应复用
+     * @param stampBeforeAnalysis 开始分析前的 {@link #getModificationStamp()}
+     * @return 登记成功时返回true
+     */
+    public boolean track(String chainKey, MethodCallChain callChain, long stampBeforeAnalysis) {
+        Collection<String> sourceFiles = callChain.getSourceFiles();
+        Collection<String> callerLookupNames = callChain.getCallerLookupNames();
+        if (sourceFiles.isEmpty()) return false;
+        // 在读动作中比较修改计数并登记，期间不会有PSI修改事件
+        return ReadAction.compute(() -> {
+            synchronized (this) {
+                if (getModificationStamp() != stampBeforeAnalysis) return false;
+                untrack(chainKey);
+                filesByChain.put(chainKey, new HashSet<>(sourceFiles));
+                for (String file : sourceFiles) {
+                    chainsByFile.computeIfAbsent(file, k -> new HashSet<>()).add(chainKey);
+                }
+                callerLookupNamesByChain.put(chainKey, new HashSet<>(callerLookupNames));
+                for (String name : callerLookupNames) {
+                    chainsByCallerLookupName.computeIfAbsent(name, k -> new HashSet<>()).add(chainKey);
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * 链路登记后依赖的文件都未被修改时返回true
+     */
+    public synchronized boolean isUpToDate(String chainKey) {
+        return filesByChain.containsKey(chainKey);
+    }
+
+    /**
+     * 让单条链路失效，同时清除其缓存的分析结果
+     */
+    public synchronized void invalidate(String chainKey) {
+        if (untrack(chainKey)) {
+            CacheService.getInstance().clearMethodCache(chainKey);
+        }
+    }
+
+    /**
+     * 让所有已登记的链路失效
+     */
+    public synchronized void invalidateAll() {
+        for (String chainKey : filesByChain.keySet()) {
+            CacheService.getInstance().clearMethodCache(chainKey);
+        }
+        filesByChain.clear();
+        chainsByFile.clear();
+        callerLookupNamesByChain.clear();
+        chainsByCallerLookupName.clear();
+    }
+
+    /**
+     * 已登记且仍有效的链路数
+     */
+    public synchronized int getTrackedChainCount() {
+        return filesByChain.size();
+    }
+
+    /**
+     * 子元素增删、替换或移动：结构变化让所有链路失效，新增的调用让向上查找过该方法调用方的链路失效，
+     * 再按所在文件处理
+     */
+    private void onChildChanged(PsiTreeChangeEvent event, PsiElement... children) {
+        if (isStructuralChange(event.getParent(), children)) {
+            invalidateAll();
+            return;
+        }
+        for (PsiElement child : children) {
+            callsChanged(child);
+        }
+        onPsiChanged(event);
+    }
+
+    /**
+     * 文件、类或方法被增删、替换或移动，或者extends/implements列表被修改
+     */
+    private static boolean isStructuralChange(PsiElement parent, PsiElement... children) {
+        for (PsiElement child : children) {
+            if (child instanceof PsiFile || child instanceof PsiClass || child instanceof PsiMethod
+                    || child instanceof PsiReferenceList) {
+                return true;
+            }
+        }
+        return parent != null && PsiTreeUtil.getParentOfType(parent, PsiReferenceList.class, false) != null;
+    }
+
+    /**
+     * 被修改的元素所在或包含的调用点可能是新增的，让向上查找过被调用方法名的调用方的链路失效。
+     * 调用点与调用方反向索引一致：方法调用、构造方法调用（按类名）和方法引用（含 Foo::new）
+     */
+    private void callsChanged(PsiElement element) {
+        if (element == null || !element.isValid()) return;
+        PsiElement enclosingCall = PsiTreeUtil.getNonStrictParentOfType(element, CALL_SITE_TYPES);
+        if (enclosingCall != null) {
+            callerLookupNameChanged(CallSiteVisitor.calleeNameOf(enclosingCall));
+        }
+        for (PsiElement call : PsiTreeUtil.findChildrenOfAnyType(element, CALL_SITE_TYPES)) {
+            callerLookupNameChanged(CallSiteVisitor.calleeNameOf(call));
+        }
+    }
+
+    private synchronized void callerLookupNameChanged(String methodName) {
+        if (methodName == null) return;
+        Set<String> chains = chainsByCallerLookupName.get(methodName);
+        if (chains == null) return;
+        for (String chainKey : Set.copyOf(chains)) {
+            invalidate(chainKey);
+        }
+    }
+
+    private void onPsiChanged(PsiTreeChangeEvent event) {
+        PsiFile file = event.getFile();
+        if (file == null) {
+            // 文件本身被增删、替换、移动或重命名时，事件中的元素就是文件
+            PsiElement element = event.getChild() != null ? event.getChild()
+                    : event.getOldChild() != null ? event.getOldChild() : event.getElement();
+            if (!(element instanceof PsiFile)) {
+                // 目录、源码根等结构变化可能影响包名和类解析，保守地全部失效
+                invalidateAll();
+                return;
+            }
+            file = (PsiFile) element;
+        }
+        VirtualFile virtualFile = file.getViewProvider().getVirtualFile();
+        fileChanged(virtualFile.getUrl());
+    }
+
+    private synchronized void fileChanged(String fileUrl) {
+        Set<String> chains = chainsByFile.get(fileUrl);
+        if (chains == null) return;
+        for (String chainKey : Set.copyOf(chains)) {
+            invalidate(chainKey);
+        }
+    }
+
+    private boolean untrack(String chainKey) {
+        Set<String> files = filesByChain.remove(chainKey);
+        if (files == null) return false;
+        removeFromIndex(chainsByFile, files, chainKey);
+        Set<String> callerLookupNames = callerLookupNamesByChain.remove(chainKey);
+        if (callerLookupNames != null) {
+            removeFromIndex(chainsByCallerLookupName, callerLookupNames, chainKey);
+        }
+        return true;
+    }
+
+    private static void removeFromIndex(Map<String, Set<String>> chainsByKey, Set<String> keys, String chainKey) {
+        for (String key : keys) {
+            Set<String> chains = chainsByKey.get(key);
+            if (chains != null) {
+                chains.remove(chainKey);
+                if (chains.isEmpty()) {
+                    chainsByKey.remove(key);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        invalidateAll();
+    }
+}
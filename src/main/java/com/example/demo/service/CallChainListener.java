@@ -0,0 +1,28 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MethodInfo;
+
+/**
+ * 调用链路分析监听器
+ * 分析器每发现一条调用边即回调，可以边分析边执行规则检查，并在得到结论后提前结束分析。
+ * 回调在分析的读动作中执行；读动作被写操作打断后从头重新执行，此时会再次回调 {@link #started(MethodInfo)}
+ */
+public interface CallChainListener {
+
+    /**
+     * 开始（或重新开始）向下遍历，之前收到的结果应全部丢弃
+     * @param rootMethod 链路的根方法
+     */
+    void started(MethodInfo rootMethod);
+
+    /**
+     * 发现一条调用边，同一条边可能被回调多次
+     * @return 返回false时停止分析，链路以 {@link #getStopReason()} 标记为截断
+     */
+    boolean callFound(MethodInfo caller, MethodInfo callee);
+
+    /**
+     * 监听器要求停止分析的原因
+     */
+    String getStopReason();
+}
@@ -0,0 +1,143 @@
+package com.example.demo.service;
+
+import com.example.demo.index.CallSiteIndex;
+import com.example.demo.index.CallerIndex;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiNewExpression;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.MethodSignatureBackedByPsiMethod;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 调用图索引服务
+ * 基于 {@link CallSiteIndex} 读取方法的调用点，调用点由索引增量维护，无需遍历方法体；
+ * 解析结果还依赖其他文件中的声明（重载、覆写、字段和参数类型、方法名），缓存到任一PSI修改为止；
+ * 基于 {@link CallerIndex} 反向查找调用方
+ */
+@Service(Service.Level.PROJECT)
+public final class CallGraphIndexService {
+
+    private final Project project;
+
+    public CallGraphIndexService(Project project) {
+        this.project = project;
+    }
+
+    public static CallGraphIndexService getInstance(Project project) {
+        return project.getService(CallGraphIndexService.class);
+    }
+
+    /**
+     * 获取方法直接调用的方法（已去重，保持源码顺序）
+     * 需在读动作中调用
+     * @return 被调用方法列表；索引不可用或与PSI不一致时返回null，调用方应回退到遍历方法体
+     */
+    public List<PsiMethod> getCallees(PsiMethod caller) {
+        if (caller.getBody() == null || DumbService.isDumb(project)) return null;
+        PsiFile file = caller.getContainingFile();
+        if (file == null || file.getVirtualFile() == null) return null;
+
+        List<PsiMethod> callees = CachedValuesManager.getCachedValue(caller,
+                () -> CachedValueProvider.Result.create(resolveFromIndex(caller, file),
+                        PsiModificationTracker.MODIFICATION_COUNT));
+        if (callees == null) return null;
+
+        // 被调用方所在文件可能已变更，失效的元素需要重新解析
+        for (PsiMethod callee : callees) {
+            if (!callee.isValid()) {
+                return resolveFromIndex(caller, file);
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * 获取直接调用该方法的方法，包括通过父类/接口方法发起的调用
+     * 先按方法名从反向索引取候选调用点，只解析这些同名调用点校验其确实调用了该方法，
+     * 不解析候选调用方中的其他调用。
+     * 需在读动作中调用
+     * @return 调用方列表；索引不可用时返回null，调用方应回退到引用搜索
+     */
+    public List<PsiMethod> getCallers(PsiMethod callee) {
+        if (DumbService.isDumb(project)) return null;
+
+        // 通过接口或父类方法发起的调用也算作调用该方法
+        Set<PsiMethod> targets = new HashSet<>();
+        targets.add(callee);
+        for (MethodSignatureBackedByPsiMethod signature : callee.findSuperMethodSignaturesIncludingStatic(true)) {
+            targets.add(signature.getMethod());
+        }
+
+        PsiManager psiManager = PsiManager.getInstance(project);
+        Set<PsiMethod> callers = new LinkedHashSet<>();
+        FileBasedIndex.getInstance().processValues(CallerIndex.NAME, callee.getName(), null, (file, offsets) -> {
+            ProgressManager.checkCanceled();
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile == null) return true;
+            for (int i = 0; i + 1 < offsets.length; i += 2) {
+                int callerOffset = offsets[i];
+                PsiMethod caller = PsiTreeUtil.getParentOfType(psiFile.findElementAt(callerOffset), PsiMethod.class, false);
+                if (caller == null || caller.getTextRange().getStartOffset() != callerOffset) {
+                    // 索引尚未跟上文档修改
+                    continue;
+                }
+                if (callers.contains(caller)) continue;
+                PsiElement callSite = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offsets[i + 1]),
+                        PsiMethodCallExpression.class, PsiNewExpression.class, PsiMethodReferenceExpression.class);
+                if (callSite != null && targets.contains(CallTargetCollector.resolveCallSite(callSite))) {
+                    callers.add(caller);
+                }
+            }
+            return true;
+        }, GlobalSearchScope.projectScope(project));
+        return new ArrayList<>(callers);
+    }
+
+    private List<PsiMethod> resolveFromIndex(PsiMethod caller, PsiFile file) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        Map<Integer, int[]> fileData = FileBasedIndex.getInstance()
+                .getFileData(CallSiteIndex.NAME, virtualFile, project);
+        int[] callSites = fileData.get(caller.getTextRange().getStartOffset());
+        if (callSites == null) {
+            // 没有调用点的方法同样没有索引项，无法与尚未跟上文档修改的偏移区分，只有空方法体可以确定
+            return caller.getBody().getStatementCount() == 0 ? List.of() : null;
+        }
+
+        Set<PsiMethod> callees = new LinkedHashSet<>();
+        for (int offset : callSites) {
+            PsiElement leaf = file.findElementAt(offset);
+            PsiElement callSite = PsiTreeUtil.getParentOfType(leaf, PsiMethodCallExpression.class,
+                    PsiNewExpression.class, PsiMethodReferenceExpression.class);
+            if (callSite == null) {
+                // 索引尚未跟上文档修改
+                return null;
+            }
+            PsiMethod callee = CallTargetCollector.resolveCallSite(callSite);
+            if (callee != null) {
+                callees.add(callee);
+            }
+        }
+        return new ArrayList<>(callees);
+    }
+}
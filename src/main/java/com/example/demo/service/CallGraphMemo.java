@@ -0,0 +1,103 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MethodInfo;
+import com.intellij.psi.PsiMethod;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 调用子图备忘录
+ * 记录每个方法的直接被调用方法，可在多个根方法的分析之间共享，
+ * 已分析过的方法再次出现时直接复用，不再解析PSI。
+ * 记录的是包过滤前的结果，各次分析读取时按自己的包过滤配置过滤，包过滤配置不同的分析也可以共享
+ */
+public class CallGraphMemo {
+
+    private final Map<PsiMethod, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 获取已记录的被调用方法
+     * @return 被调用方法列表；未记录或其中有已失效的PSI元素时返回null
+     */
+    List<Callee> get(PsiMethod method) {
+        Entry entry = entries.get(method);
+        if (entry == null) return null;
+        for (Callee callee : entry.callees) {
+            if (!callee.getMethod().isValid()) {
+                entries.remove(method);
+                return null;
+            }
+        }
+        return entry.callees;
+    }
+
+    /**
+     * @param sourceFiles 决定被调用方法列表的源文件URL，即方法自身及其实现所在的文件
+     */
+    void put(PsiMethod method, List<Callee> methodCallees, Collection<String> sourceFiles) {
+        entries.put(method, new Entry(List.copyOf(methodCallees), List.copyOf(sourceFiles)));
+    }
+
+    /**
+     * 获取决定方法被调用列表的源文件URL，未记录时返回空列表
+     */
+    List<String> getSourceFiles(PsiMethod method) {
+        Entry entry = entries.get(method);
+        return entry != null ? entry.sourceFiles : List.of();
+    }
+
+    /**
+     * 清除所有记录，代码被修改后各方法的被调用列表都可能已过时
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 已记录的方法数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry {
+        private final List<Callee> callees;
+        private final List<String> sourceFiles;
+
+        private Entry(List<Callee> callees, List<String> sourceFiles) {
+            this.callees = callees;
+            this.sourceFiles = sourceFiles;
+        }
+    }
+
+    /**
+     * 被调用方法及其描述信息
+     */
+    static final class Callee {
+        private final PsiMethod method;
+        private final MethodInfo info;
+
+        Callee(PsiMethod method, MethodInfo info) {
+            this.method = method;
+            this.info = info;
+        }
+
+        PsiMethod getMethod() {
+            return method;
+        }
+
+        String getClassName() {
+            return info.getClassName();
+        }
+
+        /**
+         * 返回描述信息，各条链路共享同一个实例；规则和链路的使用方只读取，不修改链路中的MethodInfo
+         */
+        MethodInfo getInfo() {
+            return info;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.JavaRecursiveElementWalkingVisitor;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiMethodCallExpression;
+import com.intellij.psi.PsiMethodReferenceExpression;
+import com.intellij.psi.PsiNewExpression;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 调用目标收集器
+ * 单次遍历方法体，边遍历边解析方法调用、new表达式和方法引用的目标方法，
+ * 按目标方法去重，不再先收集全部调用表达式；停止条件满足时立即结束遍历。
+ * 遍历会进入方法体中的lambda、匿名类和局部类，其中的调用都归属于被遍历的方法，调用点索引采用相同的归属规则
+ */
+final class CallTargetCollector extends JavaRecursiveElementWalkingVisitor {
+
+    private final Set<PsiMethod> targets = new LinkedHashSet<>();
+    private final BooleanSupplier stopCondition;
+
+    private CallTargetCollector(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * 收集代码块中调用的方法（已去重，保持源码顺序）
+     * @param stopCondition 每解析一个调用点后检查，返回true时停止遍历，只返回已收集的部分
+     */
+    static List<PsiMethod> collect(@NotNull PsiElement body, @NotNull BooleanSupplier stopCondition) {
+        CallTargetCollector collector = new CallTargetCollector(stopCondition);
+        body.accept(collector);
+        return new ArrayList<>(collector.targets);
+    }
+
+    /**
+     * 解析调用点的目标方法：方法调用、new表达式（构造方法）或方法引用
+     * @return 目标方法；无法解析、隐式默认构造方法或不属于任何类时返回null
+     */
+    static PsiMethod resolveCallSite(PsiElement callSite) {
+        PsiMethod target = null;
+        if (callSite instanceof PsiMethodCallExpression) {
+            target = ((PsiMethodCallExpression) callSite).resolveMethod();
+        } else if (callSite instanceof PsiNewExpression) {
+            target = ((PsiNewExpression) callSite).resolveConstructor();
+        } else if (callSite instanceof PsiMethodReferenceExpression) {
+            PsiElement resolved = ((PsiMethodReferenceExpression) callSite).resolve();
+            target = resolved instanceof PsiMethod ? (PsiMethod) resolved : null;
+        }
+        return target != null && target.getContainingClass() != null ? target : null;
+    }
+
+    @Override
+    public void visitMethodCallExpression(@NotNull PsiMethodCallExpression expression) {
+        addTarget(expression);
+        super.visitMethodCallExpression(expression);
+    }
+
+    @Override
+    public void visitNewExpression(@NotNull PsiNewExpression expression) {
+        addTarget(expression);
+        super.visitNewExpression(expression);
+    }
+
+    @Override
+    public void visitMethodReferenceExpression(@NotNull PsiMethodReferenceExpression expression) {
+        addTarget(expression);
+        super.visitMethodReferenceExpression(expression);
+    }
+
+    private void addTarget(PsiElement callSite) {
+        ProgressManager.checkCanceled();
+        PsiMethod target = resolveCallSite(callSite);
+        if (target != null) {
+            targets.add(target);
+        }
+        if (stopCondition.getAsBoolean()) {
+            stopWalking();
+        }
+    }
+}
@@ -1,327 +1,332 @@
 package com.example.demo.service;
 
+import com.example.demo.model.CallGraph;
+import com.example.demo.model.LayerReachability;
 import com.example.demo.model.MethodCallChain;
 import com.example.demo.model.MethodInfo;
 import com.example.demo.model.RuleViolation;
-import com.example.demo.util.DatabaseUtil;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.example.demo.model.StronglyConnectedComponents;
+import com.example.demo.rule.CallRule;
+import com.example.demo.rule.MethodRule;
+import com.example.demo.rule.PackageLayers;
+import com.example.demo.rule.RuleRegistry;
 
-import java.lang.reflect.Type;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * 云开发范式规则引擎
- * 负责加载和执行云开发范式规则，检查代码是否符合规范
+ * 负责执行云开发范式规则，检查代码是否符合规范；规则由 {@link RuleRepository} 加载
  */
 public class CloudDevelopmentRuleEngine {
     
-    private final DatabaseUtil databaseUtil;
-    private final Gson gson;
-    private Map<String, Object> rules;
-    
-    public CloudDevelopmentRuleEngine() {
-        this.databaseUtil = new DatabaseUtil();
-        this.gson = new Gson();
-        this.rules = new HashMap<String, Object>();
-        loadRulesFromDatabase();
-    }
-    
     /**
-     * 从数据库加载云开发范式规则
+     * 并行检查时每个子任务最多处理的方法数
      */
-    private void loadRulesFromDatabase() {
-        String sql = "SELECT rule_type, rule_content FROM cloud_dev_rules WHERE is_active = 1";
-        
-        try (Connection conn = databaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                String ruleType = rs.getString("rule_type");
-                String ruleContent = rs.getString("rule_content");
-                
-                Type type = new TypeToken<Map<String, Object>>(){}.getType();
-                @SuppressWarnings("unchecked")
-                Map<String, Object> ruleMap = gson.fromJson(ruleContent, type);
-                rules.put(ruleType, ruleMap);
-            }
-            
-        } catch (SQLException e) {
-            // 如果数据库连接失败，使用默认规则
-            loadDefaultRules();
-        }
-    }
+    private static final int PARALLEL_THRESHOLD = 256;
+    
+    private final CompiledRuleSet ruleSet;
+    private final List<MethodRule> methodRules;
+    private final List<CallRule> callRules;
     
     /**
-     * 加载默认规则（当数据库不可用时）
+     * 使用规则仓库的当前快照，不访问数据库；同一个引擎的所有检查都使用创建时的快照
      */
-    private void loadDefaultRules() {
-        // 命名规范
-        Map<String, Object> namingRules = new HashMap<String, Object>();
-        namingRules.put("method_naming_pattern", "^[a-z][a-zA-Z0-9]*$");
-        namingRules.put("class_naming_pattern", "^[A-Z][a-zA-Z0-9]*$");
-        namingRules.put("constant_naming_pattern", "^[A-Z][A-Z0-9_]*$");
-        rules.put("naming", namingRules);
-        
-        // 层次架构规范
-        Map<String, Object> layerRules = new HashMap<String, Object>();
-        layerRules.put("controller_package_pattern", ".*\\.controller\\.*");
-        layerRules.put("service_package_pattern", ".*\\.service\\.*");
-        layerRules.put("dao_package_pattern", ".*\\.(dao|repository)\\.*");
-        layerRules.put("controller_annotations", Arrays.asList("RestController", "Controller"));
-        layerRules.put("service_annotations", Arrays.asList("Service", "Component"));
-        rules.put("layer", layerRules);
-        
-        // 方法签名规范
-        Map<String, Object> signatureRules = new HashMap<String, Object>();
-        signatureRules.put("max_parameters", 5);
-        signatureRules.put("required_controller_annotations", Arrays.asList("RequestMapping", "GetMapping", "PostMapping"));
-        rules.put("signature", signatureRules);
+    public CloudDevelopmentRuleEngine() {
+        this.ruleSet = RuleRepository.getInstance().getSnapshot().getRuleSet();
+        this.methodRules = RuleRegistry.getMethodRules();
+        this.callRules = RuleRegistry.getCallRules();
     }
     
     /**
      * 检查方法调用链路是否符合云开发范式
+     * 先并行执行所有方法级规则，再并行执行所有调用边规则，最后执行需要完整调用图的循环和传递性检查；
+     * 结果顺序与串行执行相同
      */
     public List<RuleViolation> checkCallChain(MethodCallChain callChain) {
         List<RuleViolation> violations = new ArrayList<>();
-        
-        // 检查根方法
-        if (callChain.getRootMethod() != null) {
-            violations.addAll(checkMethod(callChain.getRootMethod()));
+        CallGraph callGraph = callChain.getCallGraph();
+        // 规则在按包名修正层次的副本上执行，不修改链路中的方法信息
+        MethodInfo[] nodes = new MethodInfo[callGraph.getNodeCount()];
+        for (int node = 0; node < nodes.length; node++) {
+            nodes[node] = PackageLayers.forRuleCheck(callGraph.getNode(node));
         }
         
-        // 检查调用链中的所有方法
-        for (MethodInfo method : callChain.getAllMethods()) {
-            violations.addAll(checkMethod(method));
-        }
+        // 检查调用链中的所有方法（含根方法）：调用图按方法标识为每个方法只保留一个节点，
+        // 被多处调用的方法只检查一次
+        violations.addAll(new MethodRuleTask(nodes, 0, nodes.length).invoke());
         
         // 检查层次调用规范
-        violations.addAll(checkLayerCallPattern(callChain));
+        violations.addAll(checkLayerCallPattern(callGraph, nodes));
+        
+        // 检查跨越多层的间接调用
+        violations.addAll(checkTransitiveLayerPattern(callChain));
         
         return violations;
     }
     
     /**
-     * 检查单个方法是否符合规范
+     * 开始一次边分析边检查的流式检查，作为监听器传给 {@link CallChainAnalyzer}
+     * 分析器每发现一条调用边，就检查该边的层间依赖和新出现的方法，不再在分析完成后重新遍历链路。
+     * 跨层循环调用需要完整的调用图，流式检查不报告
+     * @param maxHighSeverity 发现多少个严重(high)问题后停止分析，0表示不提前停止
+     */
+    public StreamingCheck startStreamingCheck(int maxHighSeverity) {
+        return new StreamingCheck(maxHighSeverity);
+    }
+    
+    /**
+     * 对单个方法执行所有方法级规则
      */
     private List<RuleViolation> checkMethod(MethodInfo method) {
         List<RuleViolation> violations = new ArrayList<>();
-        
-        // 检查命名规范
-        violations.addAll(checkNamingRules(method));
-        
-        // 检查方法签名规范
-        violations.addAll(checkSignatureRules(method));
-        
-        // 检查层次规范
-        violations.addAll(checkLayerRules(method));
-        
+        for (MethodRule rule : methodRules) {
+            rule.check(method, ruleSet, violations);
+        }
         return violations;
     }
     
     /**
-     * 检查命名规范
+     * 对一条调用边执行所有调用边规则
      */
-    private List<RuleViolation> checkNamingRules(MethodInfo method) {
-        List<RuleViolation> violations = new ArrayList<>();
-        @SuppressWarnings("unchecked")
-        Map<String, Object> namingRules = (Map<String, Object>) rules.get("naming");
-        
-        if (namingRules != null) {
-            String methodPattern = (String) namingRules.get("method_naming_pattern");
-            if (methodPattern != null && !Pattern.matches(methodPattern, method.getMethodName())) {
-                violations.add(new RuleViolation(
-                    "NAMING_VIOLATION",
-                    "方法名不符合命名规范",
-                    method.getMethodSignature(),
-                    "方法名应该以小写字母开头，使用驼峰命名法",
-                    "high"
-                ));
-            }
+    private void checkCall(MethodInfo caller, MethodInfo callee, List<RuleViolation> violations) {
+        for (CallRule rule : callRules) {
+            rule.check(caller, callee, ruleSet, violations);
         }
-        
-        return violations;
     }
     
     /**
-     * 检查方法签名规范
+     * 检查层次调用模式（基于云开发范式4层架构）
+     * 只检查调用图中真实存在的调用边，时间与边数成线性关系。
+     * 循环调用按强连通分量缩点：跨层的循环作为一个问题报告，分量内部的边不再逐条检查
      */
-    private List<RuleViolation> checkSignatureRules(MethodInfo method) {
+    private List<RuleViolation> checkLayerCallPattern(CallGraph callGraph, MethodInfo[] nodes) {
         List<RuleViolation> violations = new ArrayList<>();
-        @SuppressWarnings("unchecked")
-        Map<String, Object> signatureRules = (Map<String, Object>) rules.get("signature");
+        StronglyConnectedComponents components = callGraph.getStronglyConnectedComponents();
         
-        if (signatureRules != null) {
-            Integer maxParams = (Integer) signatureRules.get("max_parameters");
-            if (maxParams != null && method.getParameters() != null && 
-                method.getParameters().size() > maxParams) {
+        // 检查跨层循环调用
+        boolean[] crossLayerCycle = new boolean[components.getComponentCount()];
+        for (int c = 0; c < components.getComponentCount(); c++) {
+            if (!components.isCyclic(c)) continue;
+            Set<String> layers = new LinkedHashSet<>();
+            List<String> signatures = new ArrayList<>();
+            for (int m = components.getMemberStart(c); m < components.getMemberEnd(c); m++) {
+                MethodInfo member = nodes[components.getMemberAt(m)];
+                layers.add(member.getLayerType());
+                signatures.add(member.getMethodSignature());
+            }
+            if (layers.size() > 1) {
+                crossLayerCycle[c] = true;
                 violations.add(new RuleViolation(
-                    "SIGNATURE_VIOLATION",
-                    "方法参数过多",
-                    method.getMethodSignature(),
-                    "建议将参数封装为对象或拆分方法",
-                    "medium"
+                    "LAYER_CYCLE_VIOLATION",
+                    "跨层循环调用：" + signatures.size() + "个方法在" + String.join("、", layers) + "之间相互调用",
+                    String.join(" <-> ", signatures),
+                    "循环依赖会破坏层次结构，应该将共用逻辑下沉到下层，或通过领域层support接口解除反向依赖",
+                    "high"
                 ));
             }
         }
         
+        // 按调用方并行检查每条调用边
+        violations.addAll(new CallRuleTask(callGraph, nodes, components, crossLayerCycle, 0, nodes.length).invoke());
+        
         return violations;
     }
     
     /**
-     * 检查层次规范
+     * 检查适配器层是否绕过应用层间接访问领域层或数据访问层
+     * 直接调用已由层间依赖规则检查，这里只报告经过至少一个非应用层中间方法的调用路径；
+     * 层次可达性按强连通分量一次传播得到，不逐条搜索路径。
+     * 使用链路中分析器推断的4层架构层次，而不是按包名修正后的规则检查层次
      */
-    private List<RuleViolation> checkLayerRules(MethodInfo method) {
+    private List<RuleViolation> checkTransitiveLayerPattern(MethodCallChain callChain) {
         List<RuleViolation> violations = new ArrayList<>();
+        CallGraph callGraph = callChain.getCallGraph();
+        LayerReachability reachability = new LayerReachability(callGraph, LayerReachability.APPLICATION);
         
-        // 根据包名判断层次
-        String packageName = method.getPackageName();
-        if (packageName != null) {
-            if (packageName.contains(".controller.")) {
-                method.setLayerType("CONTROLLER");
-            } else if (packageName.contains(".service.")) {
-                method.setLayerType("SERVICE");
-            } else if (packageName.contains(".dao.") || packageName.contains(".repository.")) {
-                method.setLayerType("DAO");
-            }
+        for (int node = 0; node < callGraph.getNodeCount(); node++) {
+            if ((reachability.getLayerBits(node) & LayerReachability.ADAPTER) == 0) continue;
+            int bypassed = reachability.getIndirectReach(node)
+                    & (LayerReachability.DOMAIN | LayerReachability.DATA_ACCESS);
+            if (bypassed == 0) continue;
+            
+            List<String> layers = new ArrayList<>();
+            if ((bypassed & LayerReachability.DOMAIN) != 0) layers.add("领域层");
+            if ((bypassed & LayerReachability.DATA_ACCESS) != 0) layers.add("数据访问层");
+            violations.add(new RuleViolation(
+                "TRANSITIVE_LAYER_VIOLATION",
+                "适配器层绕过应用层间接访问了" + String.join("、", layers),
+                callGraph.getNode(node).getMethodSignature(),
+                "适配器层调用的工具类或其他适配器不应访问领域层和数据访问层，相关逻辑应放到应用层编排",
+                "medium"
+            ));
         }
         
         return violations;
     }
     
     /**
-     * 检查层次调用模式（基于云开发范式4层架构）
+     * 并行执行方法级规则：按节点编号区间二分，区间足够小时在当前线程中检查
      */
-    private List<RuleViolation> checkLayerCallPattern(MethodCallChain callChain) {
-        List<RuleViolation> violations = new ArrayList<>();
+    private final class MethodRuleTask extends RecursiveTask<List<RuleViolation>> {
+        private final MethodInfo[] nodes;
+        private final int from;
+        private final int to;
         
-        // 构建调用关系图
-        Map<String, Set<String>> callGraph = buildCallGraph(callChain);
+        MethodRuleTask(MethodInfo[] nodes, int from, int to) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+        }
         
-        // 检查层间依赖规则
-        for (MethodInfo method : callChain.getAllMethods()) {
-            String callerLayer = method.getLayerType();
-            String callerSignature = method.getMethodSignature();
-            
-            // 获取该方法直接调用的其他方法
-            Set<String> directCalls = callGraph.get(callerSignature);
-            if (directCalls == null) continue;
-            
-            for (String calledSignature : directCalls) {
-                MethodInfo calledMethod = findMethodBySignature(callChain, calledSignature);
-                if (calledMethod == null) continue;
-                
-                String calleeLayer = calledMethod.getLayerType();
-                
-                // 检查违规的层间调用
-                String violationMessage = checkLayerDependency(callerLayer, calleeLayer);
-                if (violationMessage != null) {
-                    violations.add(new RuleViolation(
-                        "LAYER_VIOLATION",
-                        violationMessage,
-                        callerSignature + " -> " + calledSignature,
-                        getLayerDependencyAdvice(callerLayer, calleeLayer),
-                        "high"
-                    ));
+        @Override
+        protected List<RuleViolation> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                List<RuleViolation> violations = new ArrayList<>();
+                for (int node = from; node < to; node++) {
+                    MethodInfo method = nodes[node];
+                    for (MethodRule rule : methodRules) {
+                        rule.check(method, ruleSet, violations);
+                    }
                 }
+                return violations;
             }
+            int middle = (from + to) >>> 1;
+            MethodRuleTask right = new MethodRuleTask(nodes, middle, to);
+            right.fork();
+            List<RuleViolation> violations = new MethodRuleTask(nodes, from, middle).compute();
+            violations.addAll(right.join());
+            return violations;
         }
-        
-        return violations;
     }
     
     /**
-     * 构建调用关系图
+     * 并行执行调用边规则：按调用方节点编号区间二分；已作为跨层循环报告的分量内部边跳过
      */
-    private Map<String, Set<String>> buildCallGraph(MethodCallChain callChain) {
-        Map<String, Set<String>> graph = new HashMap<>();
+    private final class CallRuleTask extends RecursiveTask<List<RuleViolation>> {
+        private final CallGraph callGraph;
+        private final MethodInfo[] nodes;
+        private final StronglyConnectedComponents components;
+        private final boolean[] crossLayerCycle;
+        private final int from;
+        private final int to;
         
-        // 根据调用深度构建调用关系
-        Map<Integer, List<MethodInfo>> callsByDepth = callChain.getCallsByDepth();
+        CallRuleTask(CallGraph callGraph, MethodInfo[] nodes, StronglyConnectedComponents components,
+                     boolean[] crossLayerCycle, int from, int to) {
+            this.callGraph = callGraph;
+            this.nodes = nodes;
+            this.components = components;
+            this.crossLayerCycle = crossLayerCycle;
+            this.from = from;
+            this.to = to;
+        }
         
-        for (int depth = 0; depth < callChain.getMaxDepth(); depth++) {
-            List<MethodInfo> currentLevel = callsByDepth.get(depth);
-            List<MethodInfo> nextLevel = callsByDepth.get(depth + 1);
-            
-            if (currentLevel != null && nextLevel != null) {
-                for (MethodInfo caller : currentLevel) {
-                    String callerSignature = caller.getMethodSignature();
-                    Set<String> calls = graph.computeIfAbsent(callerSignature, k -> new HashSet<>());
-                    
-                    for (MethodInfo callee : nextLevel) {
-                        calls.add(callee.getMethodSignature());
+        @Override
+        protected List<RuleViolation> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                List<RuleViolation> violations = new ArrayList<>();
+                for (int caller = from; caller < to; caller++) {
+                    MethodInfo method = nodes[caller];
+                    int callerComponent = components.getComponent(caller);
+                    for (int e = callGraph.getCalleeStart(caller); e < callGraph.getCalleeEnd(caller); e++) {
+                        int callee = callGraph.getCalleeAt(e);
+                        if (crossLayerCycle[callerComponent] && components.getComponent(callee) == callerComponent) {
+                            // 已作为跨层循环报告
+                            continue;
+                        }
+                        checkCall(method, nodes[callee], violations);
                     }
                 }
+                return violations;
             }
+            int middle = (from + to) >>> 1;
+            CallRuleTask right = new CallRuleTask(callGraph, nodes, components, crossLayerCycle, middle, to);
+            right.fork();
+            List<RuleViolation> violations = new CallRuleTask(callGraph, nodes, components, crossLayerCycle, from, middle).compute();
+            violations.addAll(right.join());
+            return violations;
         }
-        
-        return graph;
     }
     
     /**
-     * 根据方法签名查找方法信息
+     * 流式检查
+     * 只在执行分析的线程中使用；每个方法和每条调用边只检查一次。
+     * 每个方法以第一次见到时的规则检查视图为准，方法检查和调用边检查都使用这一个视图，
+     * 同一方法的不同MethodInfo实例不会得到不同的检查结果
      */
-    private MethodInfo findMethodBySignature(MethodCallChain callChain, String signature) {
-        for (MethodInfo method : callChain.getAllMethods()) {
-            if (signature.equals(method.getMethodSignature())) {
-                return method;
-            }
+    public final class StreamingCheck implements CallChainListener {
+        private final int maxHighSeverity;
+        private final List<RuleViolation> violations = new ArrayList<>();
+        private final Map<Integer, MethodInfo> checkedMethods = new HashMap<>();
+        private final Set<Long> checkedCalls = new HashSet<>();
+        private int highSeverityCount;
+        
+        private StreamingCheck(int maxHighSeverity) {
+            this.maxHighSeverity = maxHighSeverity;
         }
-        return null;
-    }
-    
-    /**
-     * 检查层间依赖是否合规
-     * 返回违规描述，null表示合规
-     */
-    private String checkLayerDependency(String callerLayer, String calleeLayer) {
-        // 云开发范式4层架构依赖规则：
-        // 1. 适配器层 -> 应用层
-        // 2. 应用层 -> 领域层
-        // 3. 基础设施层 -> 领域层
-        // 4. 所有层都可以依赖基础设施层的工具类和通用类
         
-        if ("ADAPTER".equals(callerLayer)) {
-            if (!"APPLICATION".equals(calleeLayer) && !"INFRASTRUCTURE".equals(calleeLayer)) {
-                return "适配器层违规调用：适配器层只能调用应用层或基础设施层的工具类";
-            }
-        } else if ("APPLICATION".equals(callerLayer)) {
-            if (!"DOMAIN".equals(calleeLayer) && !"INFRASTRUCTURE".equals(calleeLayer)) {
-                return "应用层违规调用：应用层只能调用领域层或基础设施层";
-            }
-        } else if ("DOMAIN".equals(callerLayer)) {
-            if ("ADAPTER".equals(calleeLayer) || "APPLICATION".equals(calleeLayer)) {
-                return "领域层违规调用：领域层不能调用适配器层或应用层";
-            }
-        } else if ("INFRASTRUCTURE".equals(callerLayer)) {
-            if ("ADAPTER".equals(calleeLayer) || "APPLICATION".equals(calleeLayer)) {
-                return "基础设施层违规调用：基础设施层不能调用适配器层或应用层";
+        @Override
+        public void started(MethodInfo rootMethod) {
+            violations.clear();
+            checkedMethods.clear();
+            checkedCalls.clear();
+            highSeverityCount = 0;
+            checkMethodOnce(rootMethod);
+        }
+        
+        @Override
+        public boolean callFound(MethodInfo caller, MethodInfo callee) {
+            MethodInfo callerView = checkMethodOnce(caller);
+            MethodInfo calleeView = checkMethodOnce(callee);
+            long callKey = ((long) caller.getMethodId().getId() << 32) | callee.getMethodId().getId();
+            if (checkedCalls.add(callKey)) {
+                List<RuleViolation> callViolations = new ArrayList<>();
+                checkCall(callerView, calleeView, callViolations);
+                callViolations.forEach(this::addViolation);
             }
+            return !isStopped();
         }
         
-        return null; // 合规
-    }
-    
-    /**
-     * 获取层间依赖建议
-     */
-    private String getLayerDependencyAdvice(String callerLayer, String calleeLayer) {
-        if ("ADAPTER".equals(callerLayer)) {
-            return "适配器层应该调用应用层进行业务编排，通过应用层间接访问其他层";
-        } else if ("APPLICATION".equals(callerLayer)) {
-            return "应用层应该调用领域层处理核心业务逻辑，通过领域层的support接口访问基础设施层";
-        } else if ("DOMAIN".equals(callerLayer)) {
-            return "领域层应该通过support接口定义依赖，由基础设施层实现具体功能";
-        } else if ("INFRASTRUCTURE".equals(callerLayer)) {
-            return "基础设施层应该实现领域层定义的support接口，不应该主动调用上层";
+        @Override
+        public String getStopReason() {
+            return "已发现" + highSeverityCount + "个严重问题，提前结束分析";
+        }
+        
+        /**
+         * 是否因严重问题数达到上限而要求停止分析
+         */
+        public boolean isStopped() {
+            return maxHighSeverity > 0 && highSeverityCount >= maxHighSeverity;
         }
         
-        return "请遵循云开发范式的层间依赖规则";
+        public int getHighSeverityCount() {
+            return highSeverityCount;
+        }
+        
+        public List<RuleViolation> getViolations() {
+            return new ArrayList<>(violations);
+        }
+        
+        /**
+         * 第一次见到方法时检查并记录其规则检查视图
+         * @return 该方法的规则检查视图
+         */
+        private MethodInfo checkMethodOnce(MethodInfo method) {
+            int methodId = method.getMethodId().getId();
+            MethodInfo view = checkedMethods.get(methodId);
+            if (view == null) {
+                view = PackageLayers.forRuleCheck(method);
+                checkedMethods.put(methodId, view);
+                checkMethod(view).forEach(this::addViolation);
+            }
+            return view;
+        }
+        
+        private void addViolation(RuleViolation violation) {
+            violations.add(violation);
+            if ("high".equalsIgnoreCase(violation.getSeverity())) {
+                highSeverityCount++;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 编译后的规则集
+ * 规则JSON只在加载时解析一次：正则表达式预编译为Pattern，阈值转换为基本类型，
+ * 检查时直接读取字段，不再从Map中取值和强制转换。实例不可变，可在多个检查之间共享
+ */
+public final class CompiledRuleSet {
+
+    /**
+     * 不限制参数个数
+     */
+    public static final int NO_LIMIT = -1;
+
+    private final Pattern methodNamingPattern;
+    private final Pattern classNamingPattern;
+    private final Pattern constantNamingPattern;
+    private final int maxParameters;
+    private final List<String> requiredControllerAnnotations;
+    private final Pattern controllerPackagePattern;
+    private final Pattern servicePackagePattern;
+    private final Pattern daoPackagePattern;
+    private final List<String> controllerAnnotations;
+    private final List<String> serviceAnnotations;
+
+    private CompiledRuleSet(Map<String, Object> naming, Map<String, Object> signature, Map<String, Object> layer) {
+        this.methodNamingPattern = compilePattern(naming.get("method_naming_pattern"));
+        this.classNamingPattern = compilePattern(naming.get("class_naming_pattern"));
+        this.constantNamingPattern = compilePattern(naming.get("constant_naming_pattern"));
+        Object maxParams = signature.get("max_parameters");
+        // 数据库中的JSON数字由Gson解析为Double
+        this.maxParameters = maxParams instanceof Number ? ((Number) maxParams).intValue() : NO_LIMIT;
+        this.requiredControllerAnnotations = toStringList(signature.get("required_controller_annotations"));
+        this.controllerPackagePattern = compilePattern(layer.get("controller_package_pattern"));
+        this.servicePackagePattern = compilePattern(layer.get("service_package_pattern"));
+        this.daoPackagePattern = compilePattern(layer.get("dao_package_pattern"));
+        this.controllerAnnotations = toStringList(layer.get("controller_annotations"));
+        this.serviceAnnotations = toStringList(layer.get("service_annotations"));
+    }
+
+    /**
+     * 编译按规则类型（naming、signature、layer）分组的规则内容
+     * 缺失的规则类型或规则项视为不检查，无效的正则表达式同样忽略
+     */
+    public static CompiledRuleSet compile(Map<String, ?> rules) {
+        return new CompiledRuleSet(group(rules, "naming"), group(rules, "signature"), group(rules, "layer"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> group(Map<String, ?> rules, String ruleType) {
+        Object group = rules.get(ruleType);
+        return group instanceof Map ? (Map<String, Object>) group : Collections.emptyMap();
+    }
+
+    private static Pattern compilePattern(Object regex) {
+        if (!(regex instanceof String)) return null;
+        try {
+            return Pattern.compile((String) regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    private static List<String> toStringList(Object value) {
+        if (!(value instanceof List)) return Collections.emptyList();
+        List<String> strings = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            if (item != null) {
+                strings.add(item.toString());
+            }
+        }
+        return Collections.unmodifiableList(strings);
+    }
+
+    /**
+     * 方法命名规范，未配置时返回null
+     */
+    public Pattern getMethodNamingPattern() {
+        return methodNamingPattern;
+    }
+
+    public Pattern getClassNamingPattern() {
+        return classNamingPattern;
+    }
+
+    public Pattern getConstantNamingPattern() {
+        return constantNamingPattern;
+    }
+
+    /**
+     * 方法参数个数上限，未配置时返回 {@link #NO_LIMIT}
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    public List<String> getRequiredControllerAnnotations() {
+        return requiredControllerAnnotations;
+    }
+
+    public Pattern getControllerPackagePattern() {
+        return controllerPackagePattern;
+    }
+
+    public Pattern getServicePackagePattern() {
+        return servicePackagePattern;
+    }
+
+    public Pattern getDaoPackagePattern() {
+        return daoPackagePattern;
+    }
+
+    public List<String> getControllerAnnotations() {
+        return controllerAnnotations;
+    }
+
+    public List<String> getServiceAnnotations() {
+        return serviceAnnotations;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MethodInfo;
+
+/**
+ * 调用边优先级评分
+ * 估计一条调用边违反分层规范的可能性，分数越高越先展开：
+ * 向上层的反向调用 > 跨越中间层的调用 > 相邻层调用；调用基础设施层和包距离较远的调用额外加分
+ */
+final class EdgePriority {
+
+    private static final int REVERSE_LAYER_CALL = 8;
+    private static final int SKIPPED_LAYER_CALL = 6;
+    private static final int LAYER_CHANGE = 3;
+    private static final int INFRASTRUCTURE_TARGET = 2;
+    private static final int MAX_PACKAGE_DISTANCE = 4;
+
+    private EdgePriority() {
+    }
+
+    static int score(MethodInfo caller, MethodInfo callee) {
+        int score = 0;
+        int callerRank = layerRank(caller.getLayerType());
+        int calleeRank = layerRank(callee.getLayerType());
+        if (callerRank >= 0 && calleeRank >= 0 && callerRank != calleeRank) {
+            score += LAYER_CHANGE;
+            if (calleeRank < callerRank && calleeRank < layerRank("DOMAIN")) {
+                // 调用适配器层或应用层：下层依赖上层
+                score += REVERSE_LAYER_CALL;
+            } else if (calleeRank - callerRank > 1 && !"INFRASTRUCTURE".equals(callee.getLayerType())) {
+                // 例如适配器层直接调用领域层，绕过了应用层
+                score += SKIPPED_LAYER_CALL;
+            }
+        }
+        if ("INFRASTRUCTURE".equals(callee.getLayerType()) && !"INFRASTRUCTURE".equals(caller.getLayerType())) {
+            score += INFRASTRUCTURE_TARGET;
+        }
+        return score + Math.min(packageDistance(caller.getClassName(), callee.getClassName()), MAX_PACKAGE_DISTANCE);
+    }
+
+    /**
+     * 云开发范式4层架构中由上到下的层次序号，未知层次返回-1
+     */
+    private static int layerRank(String layerType) {
+        if (layerType == null) return -1;
+        switch (layerType) {
+            case "ADAPTER":
+                return 0;
+            case "APPLICATION":
+                return 1;
+            case "DOMAIN":
+                return 2;
+            case "INFRASTRUCTURE":
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * 两个类所在包之间的距离：去掉公共前缀后双方剩余的包名段数之和
+     */
+    static int packageDistance(String callerClass, String calleeClass) {
+        String[] callerPackage = packageSegments(callerClass);
+        String[] calleePackage = packageSegments(calleeClass);
+        int common = 0;
+        while (common < callerPackage.length && common < calleePackage.length
+                && callerPackage[common].equals(calleePackage[common])) {
+            common++;
+        }
+        return callerPackage.length - common + calleePackage.length - common;
+    }
+
+    private static String[] packageSegments(String className) {
+        if (className == null) return new String[0];
+        int lastDot = className.lastIndexOf('.');
+        return lastDot > 0 ? className.substring(0, lastDot).split("\\.") : new String[0];
+    }
+}
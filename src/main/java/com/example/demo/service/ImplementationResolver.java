@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiModifier;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.ClassInheritorsSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.MethodSignatureUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 接口实现解析服务
+ * 通过类继承索引查找接口/抽象类在项目中的实现类，结果缓存在PSI上，
+ * 代码修改后随PSI修改计数失效，多次检查之间复用，不必每次执行实现搜索
+ */
+@Service(Service.Level.PROJECT)
+public final class ImplementationResolver {
+
+    private final Project project;
+
+    public ImplementationResolver(Project project) {
+        this.project = project;
+    }
+
+    public static ImplementationResolver getInstance(Project project) {
+        return project.getService(ImplementationResolver.class);
+    }
+
+    /**
+     * 获取接口/抽象方法在项目中有方法体的实现，按所在类的限定名排序
+     * 需要在读动作中调用
+     */
+    public List<PsiMethod> getImplementations(PsiMethod method) {
+        PsiClass containingClass = method.getContainingClass();
+        if (containingClass == null || method.isConstructor()
+                || method.hasModifierProperty(PsiModifier.STATIC)
+                || method.hasModifierProperty(PsiModifier.PRIVATE)) {
+            return List.of();
+        }
+        return CachedValuesManager.getCachedValue(method, () -> CachedValueProvider.Result.create(
+                findImplementations(method, containingClass), PsiModificationTracker.MODIFICATION_COUNT));
+    }
+
+    private List<PsiMethod> findImplementations(PsiMethod method, PsiClass containingClass) {
+        List<PsiMethod> implementations = new ArrayList<>();
+        for (PsiClass inheritor : getInheritors(containingClass)) {
+            ProgressManager.checkCanceled();
+            // 按超类替换泛型参数后匹配，如 Repository<T>.save(T) 与 UserRepositoryImpl.save(User)
+            PsiMethod impl = MethodSignatureUtil.findMethodBySuperMethod(inheritor, method, false);
+            if (impl != null && impl.getBody() != null) {
+                implementations.add(impl);
+            }
+        }
+        return List.copyOf(implementations);
+    }
+
+    /**
+     * 获取类在项目中的具名子类/实现类，同一接口的多个方法共用一次继承索引查询
+     */
+    private List<PsiClass> getInheritors(PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(psiClass, () -> {
+            List<PsiClass> inheritors = new ArrayList<>();
+            for (PsiClass inheritor : ClassInheritorsSearch.search(psiClass, GlobalSearchScope.projectScope(project), true)) {
+                // 匿名类没有限定名，包过滤时会被排除，这里直接跳过
+                if (inheritor.getQualifiedName() != null && !inheritor.isInterface()) {
+                    inheritors.add(inheritor);
+                }
+            }
+            inheritors.sort(Comparator.comparing(PsiClass::getQualifiedName));
+            return CachedValueProvider.Result.create(List.copyOf(inheritors), PsiModificationTracker.MODIFICATION_COUNT);
+        });
+    }
+}
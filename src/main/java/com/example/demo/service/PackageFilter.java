@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.util.ConfigManager;
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 包过滤器：仅保留用户自定义包，排除JDK和第三方
+ */
+public final class PackageFilter {
+    private static final int MAX_CACHED_RESULTS = 10000;
+
+    private final PrefixMatcher includes;
+    private final PrefixMatcher excludes;
+    private final Map<String, Boolean> results;
+
+    private PackageFilter(List<String> includes, List<String> excludes) {
+        this.includes = new PrefixMatcher(includes);
+        this.excludes = new PrefixMatcher(excludes);
+        this.results = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 按指定的包含、排除前缀创建过滤器，不读取配置
+     */
+    public static PackageFilter of(List<String> includes, List<String> excludes) {
+        return new PackageFilter(includes, excludes);
+    }
+
+    /**
+     * 按当前配置和推断出的根包确定包含、排除前缀
+     * @return 包含前缀和排除前缀两个列表
+     */
+    private static List<List<String>> configuredPrefixes(Project project, String targetClassName) {
+        ConfigManager cfg = ConfigManager.getInstance();
+        String inc = cfg.getProperty("analyze.include.packages", "");
+        String exc = cfg.getProperty("analyze.exclude.packages", "java.,javax.,jakarta.,jdk.,sun.,kotlin.,org.springframework.,org.jetbrains.,com.intellij.,com.fasterxml.,com.google.,org.apache.,org.slf4j.,ch.qos.logback.,org.hibernate.,org.mybatis.,org.junit.,org.testng.");
+        
+        List<String> includes = toList(inc);
+        List<String> excludes = toList(exc);
+        
+        // 如果没有配置include包，自动推断项目根包
+        if (includes.isEmpty()) {
+            String rootPackage = inferProjectRootPackage(project, targetClassName);
+            if (rootPackage != null && !rootPackage.isEmpty()) {
+                includes.add(rootPackage + ".");
+            }
+        }
+        
+        return List.of(includes, excludes);
+    }
+    
+    /**
+     * 自动推断项目根包名
+     */
+    private static String inferProjectRootPackage(Project project, String targetClassName) {
+        if (project == null || targetClassName == null) return null;
+        
+        // 方法1: 从目标类名推断，如 com.easysplit
+        String rootPackage = RootPackageDetector.rootPackageOf(targetClassName);
+        if (rootPackage != null) {
+            return rootPackage;
+        }
+        
+        // 方法2: 使用按项目缓存的探测结果，尚未探测完成时不过滤
+        return RootPackageDetector.getInstance(project).getRootPackage();
+    }
+    
+    private static List<String> toList(String csv) {
+        List<String> list = new ArrayList<>();
+        if (csv != null && !csv.trim().isEmpty()) {
+            for (String p : csv.split(",")) {
+                String s = p.trim();
+                if (!s.isEmpty()) list.add(s);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 判断类是否需要保留，结果按类名缓存
+     */
+    public boolean keep(String qualifiedClassName) {
+        if (qualifiedClassName == null) return false;
+        Boolean cached = results.get(qualifiedClassName);
+        if (cached != null) return cached;
+
+        // 先排除；再包含：若未配置includes，则自动通过；若配置了，则必须命中
+        boolean keep = !excludes.matches(qualifiedClassName)
+                && (includes.isEmpty() || includes.matches(qualifiedClassName));
+        if (results.size() >= MAX_CACHED_RESULTS) {
+            results.clear();
+        }
+        results.put(qualifiedClassName, keep);
+        return keep;
+    }
+
+    /**
+     * 已编译的包过滤器，每个项目一份
+     * 按包含、排除前缀缓存，只有配置或推断出的根包变化时才重新编译前缀树，
+     * 类名判断结果也随过滤器在多次分析间复用
+     */
+    static final class Cache {
+        private static final int MAX_FILTERS = 16;
+
+        private final Map<String, PackageFilter> filters = new ConcurrentHashMap<>();
+
+        PackageFilter get(Project project, String targetClassName) {
+            List<List<String>> prefixes = configuredPrefixes(project, targetClassName);
+            String key = String.join(",", prefixes.get(0)) + "|" + String.join(",", prefixes.get(1));
+            PackageFilter filter = filters.get(key);
+            if (filter == null) {
+                if (filters.size() >= MAX_FILTERS) {
+                    filters.clear();
+                }
+                filter = filters.computeIfAbsent(key, k -> new PackageFilter(prefixes.get(0), prefixes.get(1)));
+            }
+            return filter;
+        }
+    }
+
+    /**
+     * 前缀匹配器
+     * 将配置的前缀编译为字符前缀树，匹配耗时只与类名长度有关，与前缀数量无关
+     */
+    static final class PrefixMatcher {
+        private final Node root = new Node();
+        private final boolean empty;
+
+        PrefixMatcher(List<String> prefixes) {
+            boolean hasPrefix = false;
+            for (String prefix : prefixes) {
+                if (prefix.isEmpty()) continue;
+                Node node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+                }
+                node.terminal = true;
+                hasPrefix = true;
+            }
+            this.empty = !hasPrefix;
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        /**
+         * 判断名称是否以任一前缀开头
+         */
+        boolean matches(String name) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.children.get(name.charAt(i));
+                if (node == null) return false;
+                if (node.terminal) return true;
+            }
+            return false;
+        }
+
+        private static final class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private boolean terminal;
+        }
+    }
+}
+
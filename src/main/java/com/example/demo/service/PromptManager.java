@@ -1,15 +1,10 @@
 package com.example.demo.service;
 
+import com.example.demo.model.CallGraph;
 import com.example.demo.model.MethodCallChain;
-import com.example.demo.model.MethodInfo;
-import com.example.demo.util.DatabaseUtil;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -19,13 +14,11 @@ import java.util.regex.Pattern;
  */
 public class PromptManager {
     
-    private final DatabaseUtil databaseUtil;
     private final Gson gson;
     private final Map<String, String> promptCache;
     private final int maxPromptLength = 4000; // 最大提示词长度
     
     public PromptManager() {
-        this.databaseUtil = new DatabaseUtil();
         this.gson = new Gson();
         this.promptCache = new HashMap<>();
     }
@@ -75,7 +68,7 @@ public class PromptManager {
     private Set<String> selectRelevantRules(List<String> violationTypes) {
         Set<String> relevantRules = new HashSet<>();
         
-        // 从数据库加载规则片段
+        // 获取规则片段
         Map<String, String> ruleFragments = loadRuleFragments();
         
         // 根据违规类型选择相关规则
@@ -87,6 +80,7 @@ public class PromptManager {
                     break;
                 case "layer":
                 case "layer_violation":
+                case "transitive_layer_violation":
                     relevantRules.add("2. 4层架构：Adapter(适配器) -> Application(应用) -> Domain(领域) -> Infrastructure(基础设施)");
                     relevantRules.add("   - 适配器层：只能调用应用层和基础设施层工具类");
                     relevantRules.add("   - 应用层：只能调用领域层和基础设施层");
@@ -118,6 +112,7 @@ public class PromptManager {
     
     /**
      * 构建简化的调用链路描述
+     * 从根方法沿调用图的真实边按层展开
      */
     private String buildSimplifiedCallChain(MethodCallChain callChain) {
         StringBuilder chain = new StringBuilder();
@@ -126,22 +121,36 @@ public class PromptManager {
             chain.append("根方法: ").append(callChain.getRootMethod().getMethodSignature()).append("\n");
         }
         
-        // 只显示前3层调用，避免过长
-        Map<Integer, List<MethodInfo>> callsByDepth = callChain.getCallsByDepth();
-        int maxDepth = Math.min(3, callChain.getMaxDepth());
+        CallGraph callGraph = callChain.getCallGraph();
+        int root = callChain.getRootMethod() != null
+                ? callGraph.findNode(callChain.getRootMethod().getMethodId()) : -1;
+        if (root < 0) {
+            return chain.toString();
+        }
         
-        for (int depth = 1; depth <= maxDepth; depth++) {
-            List<MethodInfo> methods = callsByDepth.get(depth);
-            if (methods != null && !methods.isEmpty()) {
-                chain.append("第").append(depth).append("层调用: ");
-                for (int i = 0; i < Math.min(3, methods.size()); i++) { // 每层最多显示3个方法
-                    chain.append(methods.get(i).getMethodSignature());
-                    if (i < Math.min(3, methods.size()) - 1) {
-                        chain.append(", ");
+        // 只显示前3层调用，每个方法最多显示3个被调用方法，避免过长
+        boolean[] visited = new boolean[callGraph.getNodeCount()];
+        visited[root] = true;
+        List<Integer> level = Collections.singletonList(root);
+        for (int depth = 1; depth <= 3 && !level.isEmpty(); depth++) {
+            List<Integer> nextLevel = new ArrayList<>();
+            List<String> edges = new ArrayList<>();
+            for (int caller : level) {
+                int end = Math.min(callGraph.getCalleeEnd(caller), callGraph.getCalleeStart(caller) + 3);
+                for (int e = callGraph.getCalleeStart(caller); e < end; e++) {
+                    int callee = callGraph.getCalleeAt(e);
+                    edges.add(callGraph.getNode(caller).getMethodName() + " -> "
+                            + callGraph.getNode(callee).getMethodSignature());
+                    if (!visited[callee]) {
+                        visited[callee] = true;
+                        nextLevel.add(callee);
                     }
                 }
-                chain.append("\n");
             }
+            if (!edges.isEmpty()) {
+                chain.append("第").append(depth).append("层调用: ").append(String.join(", ", edges)).append("\n");
+            }
+            level = nextLevel;
         }
         
         return chain.toString();
@@ -167,80 +176,18 @@ public class PromptManager {
     }
     
     /**
-     * 从数据库加载规则片段
+     * 获取规则片段（规则类型 -> 规则摘要），来自规则仓库的当前快照
      */
     private Map<String, String> loadRuleFragments() {
-        Map<String, String> fragments = new HashMap<>();
-        
-        String sql = "SELECT rule_type, rule_summary FROM cloud_dev_rules WHERE is_active = 1";
-        
-        try (Connection conn = databaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                String ruleType = rs.getString("rule_type");
-                String ruleSummary = rs.getString("rule_summary");
-                fragments.put(ruleType, ruleSummary);
-            }
-            
-        } catch (SQLException e) {
-            // 如果数据库连接失败，使用默认规则片段
-            loadDefaultRuleFragments(fragments);
-        }
-        
-        return fragments;
-    }
-    
-    /**
-     * 加载默认规则片段
-     */
-    private void loadDefaultRuleFragments(Map<String, String> fragments) {
-        fragments.put("naming", "命名规范：方法名使用驼峰命名法，类名首字母大写，常量全大写");
-        fragments.put("layer", "4层架构：Adapter(适配器) -> Application(应用) -> Domain(领域) -> Infrastructure(基础设施)，严格遵循层间依赖规则");
-        fragments.put("signature", "方法签名：参数不超过5个，返回类型明确");
-        fragments.put("annotation", "注解使用：正确使用Spring注解标识层次");
-        fragments.put("exception", "异常处理：统一异常处理机制");
+        return RuleRepository.getInstance().getSnapshot().getSummaries();
     }
     
     /**
      * 获取规则摘要（用于快速参考）
      */
     public String getRuleSummary(String ruleType) {
-        if (promptCache.containsKey(ruleType)) {
-            return promptCache.get(ruleType);
-        }
-        
-        String summary = loadRuleSummaryFromDatabase(ruleType);
-        if (summary == null) {
-            summary = getDefaultRuleSummary(ruleType);
-        }
-        
-        promptCache.put(ruleType, summary);
-        return summary;
-    }
-    
-    /**
-     * 从数据库加载规则摘要
-     */
-    private String loadRuleSummaryFromDatabase(String ruleType) {
-        String sql = "SELECT rule_summary FROM cloud_dev_rules WHERE rule_type = ? AND is_active = 1";
-        
-        try (Connection conn = databaseUtil.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, ruleType);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("rule_summary");
-                }
-            }
-            
-        } catch (SQLException e) {
-            // 数据库查询失败
-        }
-        
-        return null;
+        String summary = RuleRepository.getInstance().getSnapshot().getSummary(ruleType);
+        return summary != null ? summary : getDefaultRuleSummary(ruleType);
     }
     
     /**
@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.PsiShortNamesCache;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.concurrency.CancellablePromise;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 项目根包探测器
+ * 在后台根据类短名索引中的Controller/Service类推断项目根包（如 com.easysplit），
+ * 找不到时根据源码根目录结构推断。结果按项目缓存，模块结构变化时失效
+ */
+@Service(Service.Level.PROJECT)
+public final class RootPackageDetector implements Disposable {
+
+    private final Project project;
+    private final Object lock = new Object();
+    private volatile boolean detected;
+    private volatile String rootPackage;
+    private CancellablePromise<String> pending;
+
+    public RootPackageDetector(Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+            @Override
+            public void rootsChanged(@NotNull ModuleRootEvent event) {
+                invalidate();
+            }
+        });
+    }
+
+    public static RootPackageDetector getInstance(Project project) {
+        return project.getService(RootPackageDetector.class);
+    }
+
+    /**
+     * 获取推断出的项目根包
+     * 不会阻塞调用方：尚未推断完成时在后台开始推断并返回null
+     */
+    public String getRootPackage() {
+        if (detected) return rootPackage;
+        scheduleDetection();
+        return null;
+    }
+
+    /**
+     * 在后台开始推断，已有推断任务在执行时不重复提交
+     */
+    public void scheduleDetection() {
+        synchronized (lock) {
+            if (detected || (pending != null && !pending.isDone())) return;
+            CancellablePromise<String> promise = ReadAction.nonBlocking(this::detectRootPackage)
+                    .inSmartMode(project)
+                    .expireWith(this)
+                    .submit(AppExecutorUtil.getAppExecutorService());
+            promise.onSuccess(result -> {
+                synchronized (lock) {
+                    if (pending == promise) {
+                        rootPackage = result;
+                        detected = true;
+                    }
+                }
+            });
+            pending = promise;
+        }
+    }
+
+    /**
+     * 清除缓存的结果，下次获取时重新推断
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.cancel();
+                pending = null;
+            }
+            detected = false;
+            rootPackage = null;
+        }
+    }
+
+    private String detectRootPackage() {
+        String fromIndex = detectFromShortNames();
+        return fromIndex != null ? fromIndex : detectFromSourceRoots();
+    }
+
+    /**
+     * 统计项目中Controller和Service类的包前两段，取出现次数最多的作为根包
+     */
+    private String detectFromShortNames() {
+        PsiShortNamesCache shortNamesCache = PsiShortNamesCache.getInstance(project);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Map<String, Integer> counts = new HashMap<>();
+        for (String className : shortNamesCache.getAllClassNames()) {
+            ProgressManager.checkCanceled();
+            if (!className.endsWith("Controller") && !className.endsWith("Service")) continue;
+            for (PsiClass psiClass : shortNamesCache.getClassesByName(className, scope)) {
+                String candidate = rootPackageOf(psiClass.getQualifiedName());
+                if (candidate != null) {
+                    counts.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        return counts.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    /**
+     * 沿源码根目录向下查找只有单个子目录的路径，如 src/main/java/com/easysplit
+     */
+    private String detectFromSourceRoots() {
+        for (VirtualFile sourceRoot : ProjectRootManager.getInstance(project).getContentSourceRoots()) {
+            StringBuilder packageName = new StringBuilder();
+            VirtualFile dir = sourceRoot;
+            while (true) {
+                VirtualFile onlyChild = null;
+                int childCount = 0;
+                for (VirtualFile child : dir.getChildren()) {
+                    childCount++;
+                    onlyChild = child;
+                }
+                if (childCount != 1 || !onlyChild.isDirectory()) break;
+                if (packageName.length() > 0) packageName.append('.');
+                packageName.append(onlyChild.getName());
+                dir = onlyChild;
+            }
+            String[] parts = packageName.toString().split("\\.");
+            if (parts.length >= 2 && isCommonTopDomain(parts[0])) {
+                return parts[0] + "." + parts[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 取限定名的前两段作为根包，要求第一段是常见顶级域名
+     */
+    static String rootPackageOf(String qualifiedName) {
+        if (qualifiedName == null) return null;
+        String[] parts = qualifiedName.split("\\.");
+        if (parts.length >= 3 && isCommonTopDomain(parts[0])) {
+            return parts[0] + "." + parts[1];
+        }
+        return null;
+    }
+
+    /**
+     * 判断是否是常见的顶级域名
+     */
+    private static boolean isCommonTopDomain(String domain) {
+        return domain.equals("com") || domain.equals("org") || domain.equals("net") ||
+               domain.equals("cn") || domain.equals("io") || domain.equals("cc");
+    }
+
+    @Override
+    public void dispose() {
+        invalidate();
+    }
+}
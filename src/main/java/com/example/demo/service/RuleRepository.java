@@ -0,0 +1,262 @@
+package com.example.demo.service;
+
+import com.example.demo.util.ConfigManager;
+import com.example.demo.util.DatabaseUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+
+import java.lang.reflect.Type;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 规则仓库
+ * 应用级共享的规则来源：创建时在后台线程中用一次查询加载全部规则内容和摘要，编译为不可变的
+ * {@link RuleSnapshot} 后发布。检查和提示词构建只读取当前快照，不会等待数据库；
+ * 加载完成前以及数据库不可用时使用内置的默认规则。
+ * 之后按 rule.reload.interval（秒）定期查询规则表的版本标识，规则有变化时在后台线程中重新加载编译，
+ * 再整体替换快照：已取得旧快照的检查继续使用旧规则，之后开始的检查使用新规则。
+ * 在IDE中运行时加载线程随应用级服务 {@link Lifecycle} 释放，动态卸载插件或关闭IDE时停止
+ */
+public class RuleRepository {
+
+    private static final RuleRepository instance = new RuleRepository();
+
+    /**
+     * 默认每30秒检查一次规则表是否有变化
+     */
+    private static final long DEFAULT_RELOAD_INTERVAL_SECONDS = 30;
+
+    private final DatabaseUtil databaseUtil;
+    private final Gson gson;
+    private final ScheduledExecutorService loader;
+    private final AtomicReference<RuleSnapshot> snapshot;
+
+    private RuleRepository() {
+        this.databaseUtil = new DatabaseUtil();
+        this.gson = new Gson();
+        this.snapshot = new AtomicReference<>(createDefaultSnapshot());
+        // 守护线程：数据库连接超时也不会阻止IDE或测试程序退出
+        this.loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cloud-dev-rule-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.execute(this::reloadIfChanged);
+        long interval = getReloadIntervalSeconds();
+        if (interval > 0) {
+            loader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.SECONDS);
+        }
+        registerLifecycle();
+    }
+
+    /**
+     * 在IDE中运行时创建应用级服务，服务释放时停止加载线程；独立运行（如测试程序）时不注册
+     */
+    private static void registerLifecycle() {
+        try {
+            if (ApplicationManager.getApplication() != null) {
+                ApplicationManager.getApplication().getService(Lifecycle.class);
+            }
+        } catch (NoClassDefFoundError e) {
+            // 平台API不可用，加载线程为守护线程，随进程退出
+        }
+    }
+
+    public static RuleRepository getInstance() {
+        return instance;
+    }
+
+    /**
+     * 停止定期检查和正在进行的加载，之后规则快照不再更新
+     */
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * 获取当前规则快照，不会阻塞
+     */
+    public RuleSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * 规则表的版本标识与当前快照不同时重新加载规则并替换快照，数据库不可用时保留当前快照
+     */
+    private void reloadIfChanged() {
+        try {
+            String version = loadVersion();
+            if (version == null || version.equals(snapshot.get().getVersion())) {
+                return;
+            }
+            // 先读版本再读内容：读取内容期间发生的修改会使下一次检查得到不同的版本，再次加载
+            RuleSnapshot loaded = loadFromDatabase(version);
+            if (loaded != null) {
+                snapshot.set(loaded);
+            }
+        } catch (RuntimeException e) {
+            // 不能让异常终止定期任务，下一次检查时重试
+        }
+    }
+
+    /**
+     * 查询规则表的版本标识：规则数（删除规则时变化）、最大编号（删除后又新增规则时变化）、
+     * 最后修改时间和各行内容的校验和。修改时间只精确到秒，同一秒内的多次修改由校验和区分
+     * @return 版本标识，数据库不可用时返回null
+     */
+    private String loadVersion() {
+        String rows = "COUNT(*) AS rule_count, MAX(id) AS max_id, MAX(updated_at) AS last_updated, ";
+        String version = queryVersion("SELECT " + rows
+                + "SUM(CRC32(CONCAT_WS('|', id, rule_type, is_active, rule_content, rule_summary))) AS checksum"
+                + " FROM cloud_dev_rules");
+        if (version == null) {
+            // 早期版本建的规则表没有 rule_summary 列
+            version = queryVersion("SELECT " + rows
+                    + "SUM(CRC32(CONCAT_WS('|', id, rule_type, is_active, rule_content))) AS checksum"
+                    + " FROM cloud_dev_rules");
+        }
+        return version;
+    }
+
+    private String queryVersion(String sql) {
+        try (Connection conn = databaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getLong("rule_count") + "@" + rs.getLong("max_id") + "@"
+                        + Objects.toString(rs.getTimestamp("last_updated"), "") + "@" + rs.getLong("checksum");
+            }
+            return "0@0@@0";
+
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 用一次查询加载全部启用的规则内容和摘要
+     * 早期版本建的规则表没有 rule_summary 列，查询失败时只加载规则内容，摘要使用默认值
+     * @return 规则快照，数据库不可用时返回null
+     */
+    private RuleSnapshot loadFromDatabase(String version) {
+        Map<String, Object> rules = new HashMap<>();
+        Map<String, String> summaries = new LinkedHashMap<>();
+
+        try {
+            loadRules("SELECT rule_type, rule_content, rule_summary FROM cloud_dev_rules WHERE is_active = 1",
+                    true, rules, summaries);
+        } catch (SQLException e) {
+            rules.clear();
+            summaries.clear();
+            try {
+                loadRules("SELECT rule_type, rule_content FROM cloud_dev_rules WHERE is_active = 1",
+                        false, rules, summaries);
+            } catch (SQLException ex) {
+                return null;
+            }
+        }
+
+        return new RuleSnapshot(rules, summaries, version);
+    }
+
+    private void loadRules(String sql, boolean withSummary,
+                           Map<String, Object> rules, Map<String, String> summaries) throws SQLException {
+        try (Connection conn = databaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            Type type = new TypeToken<Map<String, Object>>(){}.getType();
+            while (rs.next()) {
+                String ruleType = rs.getString("rule_type");
+                try {
+                    Map<String, Object> ruleMap = gson.fromJson(rs.getString("rule_content"), type);
+                    rules.put(ruleType, ruleMap);
+                } catch (JsonParseException e) {
+                    // 规则内容不是有效的JSON，忽略该规则
+                }
+                String ruleSummary = withSummary ? rs.getString("rule_summary") : null;
+                if (ruleSummary != null) {
+                    summaries.put(ruleType, ruleSummary);
+                }
+            }
+        }
+    }
+
+    /**
+     * 内置的默认规则（数据库不可用时）
+     */
+    private static RuleSnapshot createDefaultSnapshot() {
+        Map<String, Object> rules = new HashMap<>();
+
+        // 命名规范
+        Map<String, Object> namingRules = new HashMap<>();
+        namingRules.put("method_naming_pattern", "^[a-z][a-zA-Z0-9]*$");
+        namingRules.put("class_naming_pattern", "^[A-Z][a-zA-Z0-9]*$");
+        namingRules.put("constant_naming_pattern", "^[A-Z][A-Z0-9_]*$");
+        rules.put("naming", namingRules);
+
+        // 层次架构规范
+        Map<String, Object> layerRules = new HashMap<>();
+        layerRules.put("controller_package_pattern", ".*\\.controller\\.*");
+        layerRules.put("service_package_pattern", ".*\\.service\\.*");
+        layerRules.put("dao_package_pattern", ".*\\.(dao|repository)\\.*");
+        layerRules.put("controller_annotations", Arrays.asList("RestController", "Controller"));
+        layerRules.put("service_annotations", Arrays.asList("Service", "Component"));
+        rules.put("layer", layerRules);
+
+        // 方法签名规范
+        Map<String, Object> signatureRules = new HashMap<>();
+        signatureRules.put("max_parameters", 5);
+        signatureRules.put("required_controller_annotations", Arrays.asList("RequestMapping", "GetMapping", "PostMapping"));
+        rules.put("signature", signatureRules);
+
+        // 规则摘要
+        Map<String, String> summaries = new LinkedHashMap<>();
+        summaries.put("naming", "命名规范：方法名使用驼峰命名法，类名首字母大写，常量全大写");
+        summaries.put("layer", "4层架构：Adapter(适配器) -> Application(应用) -> Domain(领域) -> Infrastructure(基础设施)，严格遵循层间依赖规则");
+        summaries.put("signature", "方法签名：参数不超过5个，返回类型明确");
+        summaries.put("annotation", "注解使用：正确使用Spring注解标识层次");
+        summaries.put("exception", "异常处理：统一异常处理机制");
+
+        return new RuleSnapshot(rules, summaries, null);
+    }
+
+    private static long getReloadIntervalSeconds() {
+        String value = ConfigManager.getInstance().getProperty("rule.reload.interval");
+        try {
+            return value != null && !value.trim().isEmpty() ? Long.parseLong(value.trim()) : DEFAULT_RELOAD_INTERVAL_SECONDS;
+        } catch (NumberFormatException e) {
+            return DEFAULT_RELOAD_INTERVAL_SECONDS;
+        }
+    }
+
+    /**
+     * 规则仓库的生命周期
+     * 应用级服务随插件卸载或IDE关闭释放，释放时停止规则仓库的加载线程
+     */
+    @Service(Service.Level.APP)
+    static final class Lifecycle implements Disposable {
+
+        @Override
+        public void dispose() {
+            RuleRepository.getInstance().shutdown();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 项目打开后预加载规则仓库
+ * 规则仓库在后台线程中加载，这里只触发加载，不等待数据库
+ */
+public class RuleRepositoryPreloader implements StartupActivity, DumbAware {
+
+    @Override
+    public void runActivity(@NotNull Project project) {
+        RuleRepository.getInstance();
+    }
+}
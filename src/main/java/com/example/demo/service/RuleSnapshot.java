@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 规则快照
+ * 一次加载得到的全部规则：编译后的规则集和各规则类型的摘要。实例不可变，
+ * 由 {@link RuleRepository} 整体发布和替换，所有检查和提示词构建共享同一个快照
+ */
+public final class RuleSnapshot {
+
+    private final CompiledRuleSet ruleSet;
+    private final Map<String, String> summaries;
+    private final String version;
+
+    /**
+     * @param version 规则表的版本标识，为null时表示内置的默认规则
+     */
+    RuleSnapshot(Map<String, ?> rules, Map<String, String> summaries, String version) {
+        this.ruleSet = CompiledRuleSet.compile(rules);
+        this.summaries = Collections.unmodifiableMap(new LinkedHashMap<>(summaries));
+        this.version = version;
+    }
+
+    public CompiledRuleSet getRuleSet() {
+        return ruleSet;
+    }
+
+    /**
+     * 规则类型 -> 规则摘要，只读
+     */
+    public Map<String, String> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * 获取规则类型的摘要，未配置时返回null
+     */
+    public String getSummary(String ruleType) {
+        return summaries.get(ruleType);
+    }
+
+    /**
+     * 是否从数据库加载，为false时是内置的默认规则
+     */
+    public boolean isFromDatabase() {
+        return version != null;
+    }
+
+    /**
+     * 加载时规则表的版本标识（规则数、最大编号、最后修改时间和内容校验和），默认规则返回null
+     */
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.model.RuleViolation;
+import com.example.demo.util.ConfigManager;
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileDocumentManagerListener;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 保存时检查
+ * 保存Controller源文件时在后台对其中的入口方法执行快速检查，发现严重问题即停止分析并以通知提示。
+ * 默认关闭，配置 check.on.save=true 后启用。同一文件在 check.on.save.delay（毫秒）内再次保存时重新计时，
+ * 连续保存（如失去焦点时的自动保存）只检查一次；上一次检查未结束时推迟到其结束后再检查
+ */
+public class SaveCheckListener implements FileDocumentManagerListener {
+
+    private static final String NOTIFICATION_GROUP = "CloudDevStandardCheck";
+
+    /**
+     * 每个入口方法发现1个严重问题即停止分析
+     */
+    private static final int MAX_HIGH_SEVERITY = 1;
+
+    private static final long DEFAULT_DELAY_MILLIS = 2000;
+
+    private final Map<String, ScheduledFuture<?>> pendingChecks = new ConcurrentHashMap<>();
+    private final Set<String> runningChecks = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void beforeDocumentSaving(@NotNull Document document) {
+        if (!Boolean.parseBoolean(ConfigManager.getInstance().getProperty("check.on.save", "false"))) {
+            return;
+        }
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        if (file == null || !"java".equalsIgnoreCase(file.getExtension())) {
+            return;
+        }
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (!project.isDisposed() && ProjectFileIndex.getInstance(project).isInSourceContent(file)) {
+                schedule(project, file, project.getLocationHash() + "|" + file.getUrl());
+            }
+        }
+    }
+
+    /**
+     * 延迟检查文件，取代该文件尚未开始的检查
+     */
+    private void schedule(Project project, VirtualFile file, String checkKey) {
+        ScheduledFuture<?> previous = pendingChecks.put(checkKey, AppExecutorUtil.getAppScheduledExecutorService()
+                .schedule(() -> check(project, file, checkKey), getDelayMillis(), TimeUnit.MILLISECONDS));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void check(Project project, VirtualFile file, String checkKey) {
+        pendingChecks.remove(checkKey);
+        if (project.isDisposed() || !file.isValid()) {
+            return;
+        }
+        if (!runningChecks.add(checkKey)) {
+            // 上一次检查尚未结束，之后再检查最新内容
+            schedule(project, file, checkKey);
+            return;
+        }
+        new Task.Backgroundable(project, "云开发规范保存检查", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                BatchScanService scanService = BatchScanService.getInstance(project);
+                List<BatchScanService.EntryPoint> entryPoints = scanService.findEntryPoints(file);
+                List<String> problems = new ArrayList<>();
+                for (BatchScanService.EntryPoint entryPoint : entryPoints) {
+                    indicator.checkCanceled();
+                    indicator.setText2(entryPoint.toString());
+                    try {
+                        BatchScanService.ScanResult result = scanService.quickCheck(entryPoint, MAX_HIGH_SEVERITY);
+                        for (RuleViolation violation : result.getViolations()) {
+                            if ("high".equalsIgnoreCase(violation.getSeverity())) {
+                                problems.add(StringUtil.escapeXmlEntities(
+                                        entryPoint.getMethodName() + ": " + violation.getDescription()));
+                                break;
+                            }
+                        }
+                    } catch (ProcessCanceledException e) {
+                        throw e;
+                    } catch (RuntimeException e) {
+                        // 单个入口检查失败不影响其他入口
+                    }
+                }
+                if (!problems.isEmpty()) {
+                    NotificationGroupManager.getInstance()
+                            .getNotificationGroup(NOTIFICATION_GROUP)
+                            .createNotification("云开发规范检查：" + file.getName() + " 存在严重问题",
+                                    String.join("<br>", problems), NotificationType.WARNING)
+                            .notify(project);
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                runningChecks.remove(checkKey);
+            }
+        }.queue();
+    }
+
+    private static long getDelayMillis() {
+        String value = ConfigManager.getInstance().getProperty("check.on.save.delay");
+        try {
+            return value != null && !value.trim().isEmpty()
+                    ? Math.max(0, Long.parseLong(value.trim())) : DEFAULT_DELAY_MILLIS;
+        } catch (NumberFormatException e) {
+            return DEFAULT_DELAY_MILLIS;
+        }
+    }
+}
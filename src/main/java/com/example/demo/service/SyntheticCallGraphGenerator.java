@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.MethodInfo;
+import com.example.demo.util.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 合成调用图生成器
+ * 模拟模式（不在IntelliJ环境中）下按配置生成指定规模的调用链路，
+ * 不依赖真实项目即可以接近真实的规模驱动规则引擎、缓存和提示词构建，作为可重复的性能测试负载。
+ * 相同的配置和根方法总是生成相同的调用图
+ */
+public final class SyntheticCallGraphGenerator {
+
+    public static final double DEFAULT_FAN_OUT_MEAN = 3.0;
+    public static final int DEFAULT_MAX_FAN_OUT = 12;
+    public static final double DEFAULT_CYCLE_RATE = 0.02;
+    public static final double DEFAULT_VIOLATION_RATE = 0.05;
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] LAYERS = {"ADAPTER", "APPLICATION", "DOMAIN", "INFRASTRUCTURE"};
+    private static final String[] PACKAGE_SUFFIXES = {"controller", "application", "domain", "infrastructure"};
+    private static final String[] CLASS_SUFFIXES = {"Controller", "ApplicationService", "DomainService", "RepositoryImpl"};
+    private static final int[] DEFAULT_LAYER_WEIGHTS = {1, 3, 4, 2};
+    private static final int METHODS_PER_MODULE = 50;
+
+    private final int nodeCount;
+    private final double fanOutMean;
+    private final int maxFanOut;
+    private final int[] layerWeights;
+    private final double cycleRate;
+    private final double violationRate;
+    private final long seed;
+
+    /**
+     * @param nodeCount 生成的方法数
+     * @param fanOutMean 每个方法调用其他方法的平均次数，按泊松分布抽样
+     * @param maxFanOut 每个方法最多调用的方法数
+     * @param layerWeights 按适配器层、应用层、领域层、基础设施层顺序的层次权重
+     * @param cycleRate 调用边指向调用方祖先（形成回边和循环调用）的比例
+     * @param violationRate 违规方法和违规层间调用的比例
+     * @param seed 随机种子
+     */
+    public SyntheticCallGraphGenerator(int nodeCount, double fanOutMean, int maxFanOut, int[] layerWeights,
+                                       double cycleRate, double violationRate, long seed) {
+        this.nodeCount = nodeCount;
+        this.fanOutMean = fanOutMean;
+        this.maxFanOut = Math.max(1, maxFanOut);
+        this.layerWeights = layerWeights.clone();
+        this.cycleRate = cycleRate;
+        this.violationRate = violationRate;
+        this.seed = seed;
+    }
+
+    /**
+     * 从配置读取生成参数：simulation.nodes（为0时不使用合成调用图）、simulation.fanout.mean、
+     * simulation.fanout.max、simulation.layer.mix（如 ADAPTER:1,APPLICATION:3,DOMAIN:4,INFRASTRUCTURE:2）、
+     * simulation.cycle.rate、simulation.violation.rate、simulation.seed
+     */
+    public static SyntheticCallGraphGenerator fromConfig() {
+        ConfigManager config = ConfigManager.getInstance();
+        return new SyntheticCallGraphGenerator(
+                (int) parseLong(config.getProperty("simulation.nodes"), 0),
+                parseDouble(config.getProperty("simulation.fanout.mean"), DEFAULT_FAN_OUT_MEAN),
+                (int) parseLong(config.getProperty("simulation.fanout.max"), DEFAULT_MAX_FAN_OUT),
+                parseLayerMix(config.getProperty("simulation.layer.mix")),
+                parseDouble(config.getProperty("simulation.cycle.rate"), DEFAULT_CYCLE_RATE),
+                parseDouble(config.getProperty("simulation.violation.rate"), DEFAULT_VIOLATION_RATE),
+                parseLong(config.getProperty("simulation.seed"), DEFAULT_SEED));
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 生成以指定方法为根的调用链路
+     * 按广度优先逐个为方法抽样被调用方法：多数调用指向新方法，层次按分层规范允许的依赖选取，
+     * 以violation.rate的比例从全部层次选取；以cycle.rate的比例指向调用方的祖先，每条这样的边都形成循环调用
+     */
+    public MethodCallChain generate(String methodName, String className) {
+        Random random = new Random(seed * 31 + (className + "#" + methodName).hashCode());
+        MethodCallChain callChain = new MethodCallChain();
+        List<MethodInfo> methods = new ArrayList<>();
+        List<Integer> layers = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        // 生成树上的父方法，根方法为-1
+        List<Integer> parents = new ArrayList<>();
+
+        MethodInfo root = newMethod(methodName, className, 0, random);
+        callChain.setRootMethod(root);
+        methods.add(root);
+        layers.add(0);
+        depths.add(0);
+        parents.add(-1);
+
+        int next = 0;
+        while (next < methods.size() && methods.size() < nodeCount) {
+            int caller = next++;
+            int fanOut = sampleFanOut(random);
+            if (fanOut == 0 && next == methods.size()) {
+                // 队列中已没有其他方法，至少调用一个方法以达到指定规模
+                fanOut = 1;
+            }
+            for (int i = 0; i < fanOut; i++) {
+                int callee;
+                if (methods.size() > 1 && random.nextDouble() < cycleRate) {
+                    // 沿生成树向上随机走若干层，指向调用方的祖先（根方法指向自身），形成循环调用
+                    callee = caller;
+                    for (int steps = 1 + random.nextInt(Math.max(1, depths.get(caller)));
+                         steps > 0 && parents.get(callee) >= 0; steps--) {
+                        callee = parents.get(callee);
+                    }
+                } else if (methods.size() < nodeCount) {
+                    int layer = sampleLayer(layers.get(caller), random);
+                    callee = methods.size();
+                    methods.add(newMethod(callee, layer, random));
+                    layers.add(layer);
+                    depths.add(depths.get(caller) + 1);
+                    parents.add(caller);
+                } else {
+                    break;
+                }
+                callChain.addMethodCall(methods.get(caller), methods.get(callee), depths.get(caller) + 1);
+            }
+        }
+        return callChain;
+    }
+
+    private MethodInfo newMethod(int index, int layer, Random random) {
+        int module = index / METHODS_PER_MODULE;
+        String className = "com.example.synthetic.module" + module + "." + PACKAGE_SUFFIXES[layer]
+                + ".Module" + module + CLASS_SUFFIXES[layer];
+        // 按违规比例生成不符合命名规范的方法名
+        String methodName = (random.nextDouble() < violationRate ? "Handle" : "handle") + index;
+        return newMethod(methodName, className, layer, random);
+    }
+
+    private MethodInfo newMethod(String methodName, String className, int layer, Random random) {
+        MethodInfo methodInfo = new MethodInfo();
+        methodInfo.setMethodName(methodName);
+        methodInfo.setClassName(className);
+        methodInfo.setPackageName(className.substring(0, Math.max(0, className.lastIndexOf('.'))));
+        methodInfo.setReturnType("Object");
+        methodInfo.setLayerType(LAYERS[layer]);
+
+        // 按违规比例生成参数过多的方法
+        int parameterCount = random.nextDouble() < violationRate ? 6 + random.nextInt(3) : random.nextInt(4);
+        List<String> parameters = new ArrayList<>();
+        List<String> parameterTypes = new ArrayList<>();
+        for (int i = 0; i < parameterCount; i++) {
+            parameters.add("String arg" + i);
+            parameterTypes.add("java.lang.String");
+        }
+        methodInfo.setParameters(parameters);
+        methodInfo.setErasedParameterTypes(String.join(",", parameterTypes));
+        methodInfo.setAnnotations(layer == 0
+                ? Collections.singletonList("@org.springframework.web.bind.annotation.PostMapping")
+                : new ArrayList<>());
+        return methodInfo;
+    }
+
+    /**
+     * 按泊松分布抽样调用次数（Knuth算法），不超过maxFanOut
+     */
+    private int sampleFanOut(Random random) {
+        double limit = Math.exp(-fanOutMean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit && count < maxFanOut) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 按层次权重抽样被调用方法的层次
+     * 多数情况下只在分层规范允许调用方依赖的层次中选取
+     */
+    private int sampleLayer(int callerLayer, Random random) {
+        boolean allowAny = random.nextDouble() < violationRate;
+        int total = 0;
+        for (int layer = 0; layer < LAYERS.length; layer++) {
+            if (allowAny || isAllowedDependency(callerLayer, layer)) {
+                total += layerWeights[layer];
+            }
+        }
+        if (total <= 0) {
+            return LAYERS.length - 1;
+        }
+        int pick = random.nextInt(total);
+        for (int layer = 0; layer < LAYERS.length; layer++) {
+            if (allowAny || isAllowedDependency(callerLayer, layer)) {
+                pick -= layerWeights[layer];
+                if (pick < 0) return layer;
+            }
+        }
+        return LAYERS.length - 1;
+    }
+
+    /**
+     * 云开发范式4层架构的依赖规则：适配器层 -> 应用层，应用层 -> 领域层，
+     * 领域层和基础设施层之间可以相互依赖，所有层都可以依赖基础设施层
+     */
+    private static boolean isAllowedDependency(int callerLayer, int calleeLayer) {
+        if (calleeLayer == 3) return true;
+        switch (callerLayer) {
+            case 0:
+                return calleeLayer == 1;
+            case 1:
+                return calleeLayer == 2;
+            default:
+                return calleeLayer == 2;
+        }
+    }
+
+    private static int[] parseLayerMix(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_LAYER_WEIGHTS;
+        }
+        int[] weights = new int[LAYERS.length];
+        for (String part : value.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) continue;
+            for (int layer = 0; layer < LAYERS.length; layer++) {
+                if (LAYERS[layer].equalsIgnoreCase(pair[0].trim())) {
+                    weights[layer] = (int) Math.max(0, parseLong(pair[1], 0));
+                }
+            }
+        }
+        return weights;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Long.parseLong(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static double parseDouble(String value, double defaultValue) {
+        try {
+            return value != null && !value.trim().isEmpty() ? Double.parseDouble(value.trim()) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
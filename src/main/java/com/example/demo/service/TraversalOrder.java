@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.util.ConfigManager;
+
+/**
+ * 调用链路向下遍历的顺序
+ */
+public enum TraversalOrder {
+    /**
+     * 按源码顺序深度优先展开
+     */
+    DEPTH_FIRST,
+    /**
+     * 优先展开最可能违反规范的调用边（跨层、跨包、调用基础设施层），
+     * 预算不足以遍历全部链路时，先保留规则关心的跨层调用
+     */
+    BEST_FIRST;
+
+    /**
+     * 从配置读取遍历顺序：call.traversal.order=depth-first|best-first，默认深度优先
+     */
+    public static TraversalOrder fromConfig() {
+        String value = ConfigManager.getInstance().getProperty("call.traversal.order");
+        if (value != null && "best-first".equalsIgnoreCase(value.trim())) {
+            return BEST_FIRST;
+        }
+        return DEPTH_FIRST;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.test;
+
+import com.example.demo.model.CallGraph;
+import com.example.demo.model.LayerReachability;
+import com.example.demo.model.MethodInfo;
+import com.example.demo.model.StronglyConnectedComponents;
+import com.example.demo.service.CompiledRuleSet;
+import com.example.demo.service.PackageFilter;
+import com.example.demo.service.SyntheticCallGraphGenerator;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 算法测试类
+ * 用于验证调用图、包过滤和规则编译等不依赖IDE的算法，任一检查不通过时抛出异常
+ */
+public class AlgorithmTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== 云开发范式检查器算法测试 ===");
+
+        try {
+            // 测试强连通分量
+            System.out.println("1. 测试强连通分量...");
+            CallGraph graph = new CallGraph();
+            int a = graph.addNode(method("com.example.app.A", "a", "APPLICATION"));
+            int b = graph.addNode(method("com.example.app.B", "b", "APPLICATION"));
+            int c = graph.addNode(method("com.example.app.C", "c", "APPLICATION"));
+            int d = graph.addNode(method("com.example.app.D", "d", "APPLICATION"));
+            graph.addEdge(a, b);
+            graph.addEdge(b, c);
+            graph.addEdge(c, a);
+            graph.addEdge(c, d);
+            StronglyConnectedComponents components = graph.getStronglyConnectedComponents();
+            int cycle = components.getComponent(a);
+            check(components.getComponent(b) == cycle && components.getComponent(c) == cycle, "a、b、c应属于同一分量");
+            check(components.isCyclic(cycle) && components.getSize(cycle) == 3, "a、b、c应构成大小为3的循环分量");
+            check(components.getComponent(d) != cycle, "d不应属于循环分量");
+            check(!components.isCyclic(components.getComponent(d)), "d应为非循环分量");
+            check(components.getComponentCount() == 2, "分量数应为2");
+            System.out.println("   ✓ 强连通分量计算正确");
+
+            // 测试传递性层次可达
+            System.out.println("2. 测试传递性层次可达...");
+            CallGraph layered = new CallGraph();
+            int controller = layered.addNode(method("com.example.web.UserController", "list", "ADAPTER"));
+            int util = layered.addNode(method("com.example.web.PageUtil", "page", null));
+            int mapper = layered.addNode(method("com.example.infra.UserMapper", "select", "INFRASTRUCTURE"));
+            layered.addEdge(controller, util);
+            layered.addEdge(util, mapper);
+            int orderController = layered.addNode(method("com.example.web.OrderController", "list", "ADAPTER"));
+            int service = layered.addNode(method("com.example.app.OrderService", "list", "APPLICATION"));
+            int repository = layered.addNode(method("com.example.infra.OrderRepository", "find", "INFRASTRUCTURE"));
+            layered.addEdge(orderController, service);
+            layered.addEdge(service, repository);
+            LayerReachability reachability = new LayerReachability(layered, LayerReachability.APPLICATION);
+            check((reachability.getIndirectReach(controller) & LayerReachability.DATA_ACCESS) != 0,
+                    "经工具类间接访问数据访问层应被识别");
+            check((reachability.getIndirectReach(orderController) & LayerReachability.DATA_ACCESS) == 0,
+                    "经应用层访问数据访问层不应被识别为绕过");
+            System.out.println("   ✓ 绕过应用层的访问被识别，经过应用层的访问被忽略");
+
+            // 测试包过滤器前缀树
+            System.out.println("3. 测试包过滤器...");
+            PackageFilter filter = PackageFilter.of(List.of("com.example."), List.of("com.example.generated."));
+            check(filter.keep("com.example.user.UserService"), "包含前缀下的类应保留");
+            check(!filter.keep("com.example.generated.UserDto"), "排除前缀应优先于包含前缀");
+            check(!filter.keep("org.other.Foo"), "配置了包含前缀时，未命中的类应被过滤");
+            PackageFilter excludeOnly = PackageFilter.of(List.of(), List.of("java.", "javax."));
+            check(excludeOnly.keep("org.other.Foo"), "未配置包含前缀时，未排除的类应保留");
+            check(!excludeOnly.keep("java.util.List"), "排除前缀下的类应被过滤");
+            System.out.println("   ✓ 排除优先于包含");
+
+            // 测试规则编译
+            System.out.println("4. 测试规则编译...");
+            Type type = new TypeToken<Map<String, Object>>(){}.getType();
+            Map<String, Object> rules = new Gson().fromJson("{\"signature\":{\"max_parameters\":3}}", type);
+            Object maxParameters = ((Map<?, ?>) rules.get("signature")).get("max_parameters");
+            check(maxParameters instanceof Double, "Gson应将数字解析为Double");
+            check(CompiledRuleSet.compile(rules).getMaxParameters() == 3, "max_parameters应编译为整数3");
+            System.out.println("   ✓ Double类型的max_parameters编译为整数");
+
+            // 测试合成调用图
+            System.out.println("5. 测试合成调用图...");
+            SyntheticCallGraphGenerator generator = new SyntheticCallGraphGenerator(500,
+                    SyntheticCallGraphGenerator.DEFAULT_FAN_OUT_MEAN, SyntheticCallGraphGenerator.DEFAULT_MAX_FAN_OUT,
+                    new int[]{1, 3, 4, 2}, 0.05, SyntheticCallGraphGenerator.DEFAULT_VIOLATION_RATE,
+                    SyntheticCallGraphGenerator.DEFAULT_SEED);
+            CallGraph first = generator.generate("handle", "com.example.web.DemoController").getCallGraph();
+            CallGraph second = generator.generate("handle", "com.example.web.DemoController").getCallGraph();
+            check(first.getNodeCount() == second.getNodeCount() && first.getEdgeCount() == second.getEdgeCount(),
+                    "相同种子应生成相同的调用图");
+            StronglyConnectedComponents generated = first.getStronglyConnectedComponents();
+            boolean hasCycle = false;
+            for (int component = 0; component < generated.getComponentCount(); component++) {
+                hasCycle |= generated.isCyclic(component);
+            }
+            check(hasCycle, "回边比例大于0时应生成循环调用");
+            System.out.println("   ✓ 合成调用图可复现且包含循环调用");
+            System.out.println("   - 方法数: " + first.getNodeCount() + ", 调用边数: " + first.getEdgeCount());
+
+            System.out.println("\n=== 所有算法测试通过 ===");
+
+        } catch (Exception e) {
+            System.out.println("测试失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static MethodInfo method(String className, String methodName, String layerType) {
+        MethodInfo method = new MethodInfo();
+        method.setClassName(className);
+        method.setMethodName(methodName);
+        method.setErasedParameterTypes("");
+        method.setLayerType(layerType);
+        return method;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.demo.test;
 
 import com.example.demo.action.CodeStandardCheckAction;
+import com.example.demo.model.MethodCallChain;
+import com.example.demo.model.RuleViolation;
+import com.example.demo.service.CacheService;
 import com.example.demo.service.CallChainAnalyzer;
 import com.example.demo.service.CloudDevelopmentRuleEngine;
+import com.example.demo.service.PromptManager;
+import com.example.demo.service.SyntheticCallGraphGenerator;
 import com.example.demo.util.ConfigManager;
 import com.example.demo.ui.SettingsDialog;
 
 import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 插件功能测试类
@@ -29,6 +36,11 @@ public class PluginTest {
         // 测试代码检查Action
         testCodeStandardCheckAction();
         
+        // 合成调用图负载测试：java PluginTest workload [方法数]
+        if (args.length > 0 && "workload".equals(args[0])) {
+            testSyntheticWorkload(args.length > 1 ? Integer.parseInt(args[1]) : 5000);
+        }
+        
         // 测试配置界面（可选）
         if (args.length > 0 && "ui".equals(args[0])) {
             testSettingsDialog();
@@ -84,8 +96,56 @@ public class PluginTest {
         }
     }
     
+    private static void testSyntheticWorkload(int nodeCount) {
+        System.out.println("\n5. 合成调用图负载测试...");
+        try {
+            SyntheticCallGraphGenerator configured = SyntheticCallGraphGenerator.fromConfig();
+            SyntheticCallGraphGenerator generator = configured.getNodeCount() > 0 ? configured
+                    : new SyntheticCallGraphGenerator(nodeCount, SyntheticCallGraphGenerator.DEFAULT_FAN_OUT_MEAN,
+                            SyntheticCallGraphGenerator.DEFAULT_MAX_FAN_OUT, new int[]{1, 3, 4, 2},
+                            SyntheticCallGraphGenerator.DEFAULT_CYCLE_RATE,
+                            SyntheticCallGraphGenerator.DEFAULT_VIOLATION_RATE,
+                            SyntheticCallGraphGenerator.DEFAULT_SEED);
+            
+            long start = System.nanoTime();
+            MethodCallChain callChain = generator.generate("submitOrder", "com.example.synthetic.OrderController");
+            System.out.println("   - 生成调用图: " + callChain.getTotalMethodCount() + "个方法, "
+                    + callChain.getCallGraph().getEdgeCount() + "条调用边, " + elapsedMillis(start) + "ms");
+            
+            start = System.nanoTime();
+            List<RuleViolation> violations = new CloudDevelopmentRuleEngine().checkCallChain(callChain);
+            System.out.println("   - 规则检查: " + violations.size() + "个问题, " + elapsedMillis(start) + "ms");
+            
+            CacheService cacheService = CacheService.getInstance();
+            start = System.nanoTime();
+            cacheService.cacheCallChain("workload", callChain);
+            cacheService.getCachedCallChain("workload");
+            cacheService.clearMethodCache("workload");
+            System.out.println("   - 缓存读写: " + elapsedMillis(start) + "ms");
+            
+            List<String> violationTypes = new ArrayList<>();
+            violations.forEach(violation -> {
+                if (!violationTypes.contains(violation.getViolationType())) {
+                    violationTypes.add(violation.getViolationType());
+                }
+            });
+            start = System.nanoTime();
+            String prompt = new PromptManager().buildSmartPrompt(callChain, violationTypes);
+            System.out.println("   - 构建提示词: " + prompt.length() + "字符, " + elapsedMillis(start) + "ms");
+            System.out.println("   ✓ 负载测试完成");
+        } catch (Exception e) {
+            System.out.println("   ✗ 负载测试失败: " + e.getMessage());
+        } finally {
+            CacheService.getInstance().shutdown();
+        }
+    }
+    
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+    
     private static void testSettingsDialog() {
-        System.out.println("\n5. 测试配置界面...");
+        System.out.println("\n6. 测试配置界面...");
         try {
             SwingUtilities.invokeLater(() -> {
                 JFrame frame = new JFrame("测试框架");
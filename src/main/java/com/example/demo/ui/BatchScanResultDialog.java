@@ -0,0 +1,119 @@
+package com.example.demo.ui;
+
+import com.example.demo.service.BatchScanService;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * 批量扫描结果对话框
+ * 按入口方法汇总调用链路规模和违规数量
+ */
+public class BatchScanResultDialog extends DialogWrapper {
+
+    private final List<BatchScanService.ScanResult> results;
+    private final String report;
+
+    public BatchScanResultDialog(List<BatchScanService.ScanResult> results, String report) {
+        super(true);
+        this.results = results;
+        this.report = report;
+
+        setTitle("云开发规范批量扫描结果");
+        setResizable(true);
+        init();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        mainPanel.setPreferredSize(new Dimension(900, 600));
+
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("入口汇总", createSummaryPanel());
+        tabbedPane.addTab("详细报告", createReportPanel());
+        mainPanel.add(tabbedPane, BorderLayout.CENTER);
+
+        return mainPanel;
+    }
+
+    /**
+     * 创建入口汇总面板
+     */
+    private JComponent createSummaryPanel() {
+        String[] columnNames = {"入口方法", "涉及方法数", "调用关系数", "问题数"};
+        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        for (BatchScanService.ScanResult result : results) {
+            Object[] row = {
+                result.getEntryPoint().toString(),
+                result.getCallChain().getTotalMethodCount(),
+                result.getCallChain().getCallGraph().getEdgeCount(),
+                result.getViolations().size()
+            };
+            model.addRow(row);
+        }
+
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(500);
+
+        return new JBScrollPane(table);
+    }
+
+    /**
+     * 创建详细报告面板
+     */
+    private JComponent createReportPanel() {
+        JTextArea textArea = new JTextArea();
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        textArea.setText(report);
+
+        return new JBScrollPane(textArea);
+    }
+
+    @Override
+    protected JComponent createSouthPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+
+        JButton exportButton = new JButton("导出报告");
+        exportButton.addActionListener(e -> exportReport());
+        panel.add(exportButton);
+
+        JButton closeButton = new JButton("关闭");
+        closeButton.addActionListener(e -> close(OK_EXIT_CODE));
+        panel.add(closeButton);
+
+        return panel;
+    }
+
+    /**
+     * 导出报告
+     */
+    private void exportReport() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new java.io.File("云开发规范批量扫描报告.txt"));
+
+        if (fileChooser.showSaveDialog(getContentPanel()) == JFileChooser.APPROVE_OPTION) {
+            try {
+                java.io.File file = fileChooser.getSelectedFile();
+                java.nio.file.Files.write(file.toPath(), report.getBytes("UTF-8"));
+                JOptionPane.showMessageDialog(getContentPanel(), "报告已导出到: " + file.getAbsolutePath());
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(getContentPanel(), "导出失败: " + e.getMessage(),
+                        "错误", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+}
@@ -88,8 +88,14 @@ public class CheckResultDialog extends DialogWrapper {
         gbc.gridx = 1;
         statsPanel.add(new JLabel(String.valueOf(callChain.getTotalMethodCount())), gbc);
         
-        // 发现问题数
+        // 调用关系数
         gbc.gridx = 0; gbc.gridy = 3;
+        statsPanel.add(new JLabel("调用关系数:"), gbc);
+        gbc.gridx = 1;
+        statsPanel.add(new JLabel(String.valueOf(callChain.getCallGraph().getEdgeCount())), gbc);
+        
+        // 发现问题数
+        gbc.gridx = 0; gbc.gridy = 4;
         statsPanel.add(new JLabel("发现问题数:"), gbc);
         gbc.gridx = 1;
         JLabel violationCountLabel = new JLabel(String.valueOf(violations.size()));
@@ -100,6 +106,16 @@ public class CheckResultDialog extends DialogWrapper {
         }
         statsPanel.add(violationCountLabel, gbc);
         
+        // 截断提示
+        if (callChain.isTruncated()) {
+            gbc.gridx = 0; gbc.gridy = 5;
+            statsPanel.add(new JLabel("分析状态:"), gbc);
+            gbc.gridx = 1;
+            JLabel truncatedLabel = new JLabel("部分结果（" + callChain.getTruncationReason() + "）");
+            truncatedLabel.setForeground(Color.ORANGE);
+            statsPanel.add(truncatedLabel, gbc);
+        }
+        
         panel.add(statsPanel, BorderLayout.NORTH);
         
         // 总体评估
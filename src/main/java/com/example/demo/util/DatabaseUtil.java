@@ -131,6 +131,7 @@ public class DatabaseUtil {
                 rule_type VARCHAR(50) NOT NULL COMMENT '规则类型',
                 rule_name VARCHAR(100) NOT NULL COMMENT '规则名称',
                 rule_content TEXT NOT NULL COMMENT '规则内容(JSON格式)',
+                rule_summary TEXT COMMENT '规则摘要(用于AI提示词)',
                 description TEXT COMMENT '规则描述',
                 is_active BOOLEAN DEFAULT TRUE COMMENT '是否启用',
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,